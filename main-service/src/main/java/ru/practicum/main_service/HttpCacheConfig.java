@@ -0,0 +1,66 @@
+package ru.practicum.main_service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Условные запросы к публичному API. Сильный ETag считается по телу ответа, поэтому учитывает и изменения,
+ * которые не проходят через базу (просмотры из сервиса статистики); при совпадении If-None-Match клиент получает
+ * 304 без тела. Cache-Control задается отдельно для каждого раздела: при нулевом сроке ответ разрешено хранить,
+ * но перед использованием его нужно перепроверить по ETag.
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.http-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class HttpCacheConfig implements WebMvcConfigurer {
+    private final long categoriesMaxAge;
+    private final long compilationsMaxAge;
+    private final long eventsMaxAge;
+    private final long commentsMaxAge;
+
+    public HttpCacheConfig(@Value("${app.http-cache.categories-max-age-s:60}") long categoriesMaxAge,
+                           @Value("${app.http-cache.compilations-max-age-s:30}") long compilationsMaxAge,
+                           @Value("${app.http-cache.events-max-age-s:0}") long eventsMaxAge,
+                           @Value("${app.http-cache.comments-max-age-s:0}") long commentsMaxAge) {
+        this.categoriesMaxAge = categoriesMaxAge;
+        this.compilationsMaxAge = compilationsMaxAge;
+        this.eventsMaxAge = eventsMaxAge;
+        this.commentsMaxAge = commentsMaxAge;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> publicEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/categories", "/categories/*", "/compilations", "/compilations/*",
+                "/events", "/events/*", "/comments", "/comments/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.addCacheMapping(cacheControl(categoriesMaxAge), "/categories", "/categories/*");
+        interceptor.addCacheMapping(cacheControl(compilationsMaxAge), "/compilations", "/compilations/*");
+        interceptor.addCacheMapping(cacheControl(eventsMaxAge), "/events", "/events/*");
+        interceptor.addCacheMapping(cacheControl(commentsMaxAge), "/comments", "/comments/*");
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/categories/**", "/compilations/**", "/events/**", "/comments/**");
+    }
+
+    private static CacheControl cacheControl(long maxAge) {
+        if (maxAge <= 0) {
+            return CacheControl.noCache().cachePublic();
+        }
+        return CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic();
+    }
+}
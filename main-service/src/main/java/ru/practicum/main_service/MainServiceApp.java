@@ -2,7 +2,9 @@ package ru.practicum.main_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = {"ru.practicum.statsclient", "ru.practicum.main_service"})
 public class MainServiceApp {
     public static void main(String[] args) {
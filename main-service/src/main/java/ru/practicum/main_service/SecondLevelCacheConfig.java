@@ -0,0 +1,76 @@
+package ru.practicum.main_service;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш второго уровня Hibernate для редко изменяемых сущностей: пользователей, категорий и локаций.
+ * У каждого региона свой размер и срок жизни записей, статистика регионов публикуется в Micrometer.
+ * Менеджер кэшей создается на каждый контекст приложения, поэтому тестовые контексты не делят записи между собой.
+ * По умолчанию в application.properties кэш второго уровня выключен, включает его только эта конфигурация: иначе
+ * Hibernate сам выбрал бы JCache с менеджером по умолчанию, общим для всех контекстов.
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+    private static final String USERS = "users";
+    private static final String CATEGORIES = "categories";
+    private static final String LOCATIONS = "locations";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${app.second-level-cache.users.maximum-size:10000}") long usersMaximumSize,
+            @Value("${app.second-level-cache.users.expire-after-ms:600000}") long usersExpireAfterMs,
+            @Value("${app.second-level-cache.categories.maximum-size:1000}") long categoriesMaximumSize,
+            @Value("${app.second-level-cache.categories.expire-after-ms:3600000}") long categoriesExpireAfterMs,
+            @Value("${app.second-level-cache.locations.maximum-size:50000}") long locationsMaximumSize,
+            @Value("${app.second-level-cache.locations.expire-after-ms:3600000}") long locationsExpireAfterMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("ewm-second-level-cache-" + UUID.randomUUID()),
+                        getClass().getClassLoader());
+        createRegion(cacheManager, USERS, usersMaximumSize, usersExpireAfterMs);
+        createRegion(cacheManager, CATEGORIES, categoriesMaximumSize, categoriesExpireAfterMs);
+        createRegion(cacheManager, LOCATIONS, locationsMaximumSize, locationsExpireAfterMs);
+
+        meterRegistry.ifAvailable(registry -> cacheManager.getCacheNames().forEach(name ->
+                JCacheMetrics.monitor(registry, cacheManager.getCache(name))));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maximumSize, long expireAfterMs) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(expireAfterMs)));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
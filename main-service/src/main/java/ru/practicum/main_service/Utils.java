@@ -6,4 +6,5 @@ public class Utils {
 
     public static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
@@ -10,6 +10,7 @@ import ru.practicum.main_service.category.domain.repository.CategoryRepository;
 import ru.practicum.main_service.category.dto.CategoryDto;
 import ru.practicum.main_service.category.dto.NewCategoryDto;
 import ru.practicum.main_service.category.mapper.CategoryMapper;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.exception.NotFoundException;
 
 import java.util.List;
@@ -23,12 +24,15 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CompilationCache compilationCache;
+    private final CategorySnapshot categorySnapshot;
 
 
     @Transactional
     public CategoryDto addCategory(NewCategoryDto newCategoryDto) {
         log.info("Добавление новой категории {}", newCategoryDto);
 
+        categorySnapshot.invalidate();
         return categoryMapper.toCategoryDto(categoryRepository.save(categoryMapper.newCategoryDtoToCategory(newCategoryDto)));
     }
 
@@ -36,7 +40,7 @@ public class CategoryService {
     public List<CategoryDto> getAll(Pageable pageable) {
         log.info("Получение всех категорий {}", pageable);
 
-        return categoryRepository.findAll(pageable).stream()
+        return categorySnapshot.getAll(pageable).stream()
                 .map(categoryMapper::toCategoryDto)
                 .collect(Collectors.toList());
     }
@@ -45,7 +49,7 @@ public class CategoryService {
     public CategoryDto getById(Long catId) {
         log.info("Получение категории по id {}", catId);
 
-        Category category = categoryRepository.findById(catId)
+        Category category = categorySnapshot.findById(catId)
                 .orElseThrow(() -> new NotFoundException("Категория с таким id не найдена."));
 
         return categoryMapper.toCategoryDto(category);
@@ -59,6 +63,8 @@ public class CategoryService {
                 .orElseThrow(() -> new NotFoundException("Категория с таким id не найдена."));
 
         categoryDto.setId(catId);
+        compilationCache.evictAll();
+        categorySnapshot.invalidate();
         return categoryMapper.toCategoryDto(categoryRepository.save(categoryMapper.categoryDtoToCategory(categoryDto)));
     }
 
@@ -69,6 +75,7 @@ public class CategoryService {
         categoryRepository.findById(catId)
                 .orElseThrow(() -> new NotFoundException("Категория с таким id не найдена."));
 
+        categorySnapshot.invalidate();
         categoryRepository.deleteById(catId);
     }
 }
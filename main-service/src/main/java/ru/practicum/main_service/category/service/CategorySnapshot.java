@@ -0,0 +1,132 @@
+package ru.practicum.main_service.category.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.main_service.category.domain.model.Category;
+import ru.practicum.main_service.category.domain.repository.CategoryRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Неизменяемый снимок справочника категорий в памяти. Снимок целиком подменяется новым после коммита изменений
+ * категорий, а также по истечении срока жизни, чтобы подхватить изменения, сделанные другими экземплярами сервиса.
+ * Наружу отдаются копии категорий, поэтому изменение полученного объекта не портит снимок.
+ * Каждый сброс увеличивает поколение снимка: загрузка, во время которой случился сброс, не остается установленной,
+ * иначе она могла бы вернуть в память данные, прочитанные до коммита.
+ */
+@Slf4j
+@Component
+public class CategorySnapshot {
+    private final CategoryRepository categoryRepository;
+    private final long maxAgeMs;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+
+    public CategorySnapshot(CategoryRepository categoryRepository,
+                            @Value("${app.categories-snapshot.max-age-ms:60000}") long maxAgeMs) {
+        this.categoryRepository = categoryRepository;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        get();
+    }
+
+    public List<Category> getAll(Pageable pageable) {
+        List<Category> categories = get().categories;
+        int from = (int) Math.min(pageable.getOffset(), categories.size());
+        int to = Math.min(from + pageable.getPageSize(), categories.size());
+
+        return categories.subList(from, to).stream()
+                .map(CategorySnapshot::copy)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<Category> findById(Long catId) {
+        return Optional.ofNullable(get().byId.get(catId))
+                .map(CategorySnapshot::copy);
+    }
+
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clear();
+            }
+        });
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private Snapshot get() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    current = reload(null);
+                }
+            }
+        } else if (System.currentTimeMillis() - current.loadedAt > maxAgeMs && reloading.compareAndSet(false, true)) {
+            try {
+                current = reload(current);
+            } finally {
+                reloading.set(false);
+            }
+        }
+        return current;
+    }
+
+    private Snapshot reload(Snapshot current) {
+        long loadedGeneration = generation.get();
+        List<Category> categories = categoryRepository.findAll(Sort.by("id")).stream()
+                .map(CategorySnapshot::copy)
+                .collect(Collectors.toUnmodifiableList());
+        Snapshot loaded = new Snapshot(categories, categories.stream()
+                .collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity())),
+                System.currentTimeMillis());
+        if (snapshot.compareAndSet(current, loaded) && generation.get() != loadedGeneration) {
+            snapshot.compareAndSet(loaded, null);
+        }
+        log.info("Загружен снимок категорий, всего {}", categories.size());
+        return loaded;
+    }
+
+    private static Category copy(Category category) {
+        return Category.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .build();
+    }
+
+    @RequiredArgsConstructor
+    private static class Snapshot {
+        private final List<Category> categories;
+        private final Map<Long, Category> byId;
+        private final long loadedAt;
+    }
+}
@@ -2,14 +2,18 @@ package ru.practicum.main_service.comment.domain.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.main_service.comment.domain.model.Comment;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("SELECT c FROM Comment AS c WHERE c.author.id = ?1")
     List<Comment> findAllByAuthorId(Long userId, Pageable pageable);
 
+    @Query("SELECT c FROM Comment AS c WHERE c.author.id = ?1 AND c.event.id = ?2")
     List<Comment> findAllByAuthorIdAndEventId(Long userId, Long eventId);
 
+    @Query("SELECT c FROM Comment AS c WHERE c.event.id = ?1")
     List<Comment> findAllByEventId(Long eventId, Pageable pageable);
 }
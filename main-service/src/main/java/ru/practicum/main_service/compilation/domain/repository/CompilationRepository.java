@@ -2,12 +2,23 @@ package ru.practicum.main_service.compilation.domain.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.main_service.compilation.domain.model.Compilation;
+import ru.practicum.main_service.compilation.dto.CompilationEvent;
 
 import java.util.List;
 
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
+    List<Compilation> findAllBy(Pageable pageable);
+
     List<Compilation> findAllByPinned(Boolean pinned, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.main_service.compilation.dto.CompilationEvent(c.id, e.id) " +
+            "FROM Compilation AS c " +
+            "JOIN c.events AS e " +
+            "WHERE c.id IN ?1 " +
+            "ORDER BY e.id")
+    List<CompilationEvent> findCompilationEvents(List<Long> compilationIds);
 }
@@ -1,7 +1,6 @@
-package ru.practicum.main_service.event.dto;
+package ru.practicum.main_service.compilation.dto;
 
 import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -10,8 +9,7 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
-public class RequestStats {
+public class CompilationEvent {
+    private Long compilationId;
     private Long eventId;
-    private Long confirmedRequests;
 }
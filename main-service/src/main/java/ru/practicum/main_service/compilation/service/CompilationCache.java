@@ -0,0 +1,134 @@
+package ru.practicum.main_service.compilation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.main_service.compilation.dto.CompilationDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш готовых подборок публичного API: страницы и отдельные подборки хранятся вместе с краткими
+ * представлениями событий. Записи сбрасываются после коммита транзакции, изменившей подборку, входящее
+ * в нее событие или категорию; счетчики просмотров и заявок обновляются по истечении срока жизни записи.
+ * Каждый сброс увеличивает поколение кэша: запись, загрузка которой пересеклась со сбросом, удаляется,
+ * иначе она могла бы вернуть в кэш данные, прочитанные до коммита.
+ */
+@Slf4j
+@Component
+public class CompilationCache {
+    private final Cache<PageKey, List<CompilationDto>> pages;
+    private final Cache<Long, CompilationDto> compilations;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CompilationCache(@Value("${app.compilations-cache.enabled:true}") boolean enabled,
+                            @Value("${app.compilations-cache.expire-after-ms:30000}") long expireAfterMs,
+                            @Value("${app.compilations-cache.maximum-size:1000}") long maximumSize,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!enabled) {
+            pages = null;
+            compilations = null;
+            return;
+        }
+        pages = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        compilations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, pages, "compilation-pages");
+            CaffeineCacheMetrics.monitor(registry, compilations, "compilations");
+        });
+    }
+
+    public List<CompilationDto> getPage(Boolean pinned, Pageable pageable, Supplier<List<CompilationDto>> loader) {
+        if (pages == null) {
+            return loader.get();
+        }
+        return load(pages, new PageKey(pinned, pageable.getOffset(), pageable.getPageSize()), loader);
+    }
+
+    public CompilationDto getCompilation(Long compId, Supplier<CompilationDto> loader) {
+        if (compilations == null) {
+            return loader.get();
+        }
+        return load(compilations, compId, loader);
+    }
+
+    public void evictAll() {
+        afterCommit(() -> {
+            log.info("Сброс кэша подборок");
+            pages.invalidateAll();
+            compilations.invalidateAll();
+        });
+    }
+
+    public void evictEvent(Long eventId) {
+        afterCommit(() -> {
+            log.info("Сброс подборок, содержащих событие с id {}", eventId);
+            pages.asMap().values().removeIf(page -> page.stream().anyMatch(compilation -> contains(compilation,
+                    eventId)));
+            compilations.asMap().values().removeIf(compilation -> contains(compilation, eventId));
+        });
+    }
+
+    private <K, V> V load(Cache<K, V> cache, K key, Supplier<V> loader) {
+        long loadedGeneration = generation.get();
+        V value = cache.get(key, k -> loader.get());
+        if (generation.get() != loadedGeneration) {
+            cache.asMap().remove(key, value);
+        }
+        return value;
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (pages == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(eviction);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(eviction);
+            }
+        });
+    }
+
+    private void evict(Runnable eviction) {
+        generation.incrementAndGet();
+        eviction.run();
+    }
+
+    private static boolean contains(CompilationDto compilation, Long eventId) {
+        return compilation.getEvents().stream().anyMatch(event -> event.getId().equals(eventId));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PageKey {
+        private final Boolean pinned;
+        private final long offset;
+        private final int size;
+    }
+}
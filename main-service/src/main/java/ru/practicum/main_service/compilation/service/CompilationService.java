@@ -8,6 +8,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.main_service.compilation.domain.model.Compilation;
 import ru.practicum.main_service.compilation.domain.repository.CompilationRepository;
 import ru.practicum.main_service.compilation.dto.CompilationDto;
+import ru.practicum.main_service.compilation.dto.CompilationEvent;
 import ru.practicum.main_service.compilation.dto.NewCompilationDto;
 import ru.practicum.main_service.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.main_service.compilation.mapper.CompilationMapper;
@@ -22,7 +23,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -35,6 +38,7 @@ public class CompilationService {
     private final CompilationRepository compilationRepository;
     private final CompilationMapper compilationMapper;
     private final EventService eventService;
+    private final CompilationCache compilationCache;
 
     @Transactional
     public CompilationDto addCompilation(NewCompilationDto newCompilationDto) {
@@ -50,8 +54,9 @@ public class CompilationService {
         }
 
         Compilation compilation = compilationRepository.save(compilationMapper.newDtoToCompilation(newCompilationDto, events));
+        compilationCache.evictAll();
 
-        return getById(compilation.getId());
+        return loadById(compilation.getId());
     }
 
     @Transactional
@@ -80,8 +85,9 @@ public class CompilationService {
         }
 
         compilationRepository.save(compilation);
+        compilationCache.evictAll();
 
-        return getById(compId);
+        return loadById(compId);
     }
 
     @Transactional
@@ -92,49 +98,56 @@ public class CompilationService {
                 .orElseThrow(() -> new NotFoundException("Подборка с таким id не найдена."));
 
         compilationRepository.deleteById(compId);
+        compilationCache.evictAll();
     }
 
 
     public List<CompilationDto> getAll(Boolean pinned, Pageable pageable) {
         log.info("Получение всех подборок событий с параметрами pinned = {}, pageable = {}", pinned, pageable);
 
-        List<Compilation> compilations;
-
-        if (pinned == null) {
-            compilations = compilationRepository.findAll(pageable).toList();
-        } else {
-            compilations = compilationRepository.findAllByPinned(pinned, pageable);
-        }
-
-        Set<Event> uniqueEvents = new HashSet<>();
-        compilations.forEach(compilation -> uniqueEvents.addAll(compilation.getEvents()));
-
-        Map<Long, EventShortDto> eventsShortDto = new HashMap<>();
-        eventService.toEventsShortDto(new ArrayList<>(uniqueEvents))
-                .forEach(event -> eventsShortDto.put(event.getId(), event));
-
-        List<CompilationDto> result = new ArrayList<>();
-        compilations.forEach(compilation -> {
-            List<EventShortDto> compEventsShortDto = new ArrayList<>();
-            compilation.getEvents()
-                    .forEach(event -> compEventsShortDto.add(eventsShortDto.get(event.getId())));
-            result.add(compilationMapper.toCompilationDto(compilation, compEventsShortDto));
-        });
-
-        return result;
+        return compilationCache.getPage(pinned, pageable, () -> toCompilationsDto(pinned == null
+                ? compilationRepository.findAllBy(pageable)
+                : compilationRepository.findAllByPinned(pinned, pageable)));
     }
 
 
     public CompilationDto getById(Long compId) {
         log.info("Получение подборки событий по id {}", compId);
 
+        return compilationCache.getCompilation(compId, () -> loadById(compId));
+    }
+
+    private CompilationDto loadById(Long compId) {
         Compilation compilation = compilationRepository.findById(compId)
                 .orElseThrow(() -> new NotFoundException("Подборка с таким id не найдена."));
 
-        List<EventShortDto> eventsShortDto = eventService.toEventsShortDto(compilation.getEvents());
-
-        return compilationMapper.toCompilationDto(compilation, eventsShortDto);
+        return toCompilationsDto(List.of(compilation)).get(0);
     }
 
+    private List<CompilationDto> toCompilationsDto(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, List<Long>> eventsIdByCompilation = compilationRepository.findCompilationEvents(compilations.stream()
+                        .map(Compilation::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(CompilationEvent::getCompilationId,
+                        Collectors.mapping(CompilationEvent::getEventId, Collectors.toList())));
+
+        Set<Long> uniqueEventsId = new HashSet<>();
+        eventsIdByCompilation.values().forEach(uniqueEventsId::addAll);
 
+        Map<Long, EventShortDto> eventsShortDto = new HashMap<>();
+        eventService.getEventsShortDtoByIds(uniqueEventsId)
+                .forEach(event -> eventsShortDto.put(event.getId(), event));
+
+        return compilations.stream()
+                .map(compilation -> compilationMapper.toCompilationDto(compilation,
+                        eventsIdByCompilation.getOrDefault(compilation.getId(), List.of()).stream()
+                                .map(eventsShortDto::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
 }
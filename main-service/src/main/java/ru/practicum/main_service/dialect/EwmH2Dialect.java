@@ -0,0 +1,20 @@
+package ru.practicum.main_service.dialect;
+
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Диалект для тестов на H2: те же функции поиска, но через поиск подстроки без учета регистра.
+ * Чем раньше найдено совпадение, тем выше ранг, так что совпадение в аннотации идет первым.
+ * Искомый текст подставляется в шаблон один раз: Hibernate не умеет связывать повторяющиеся параметры.
+ */
+public class EwmH2Dialect extends EwmPostgreSQLDialect {
+    private static final String POSITION = "LOCATE(lower(?3), lower(coalesce(?1, '') || ' ' || coalesce(?2, '')))";
+
+    @Override
+    protected void registerTextSearchFunctions() {
+        registerFunction(TEXT_MATCH, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(" + POSITION + " > 0)"));
+        registerFunction(TEXT_RANK, new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "(1.0 / nullif(" + POSITION + ", 0))"));
+    }
+}
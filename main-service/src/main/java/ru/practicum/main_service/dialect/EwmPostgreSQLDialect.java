@@ -0,0 +1,35 @@
+package ru.practicum.main_service.dialect;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Диалект PostgreSQL с функциями полнотекстового поиска по событиям. Выражение tsvector совпадает
+ * с выражением GIN-индекса ix_events_text_search из schema-postgresql.sql, поэтому поиск идет по индексу.
+ * Функция LOCATION_COS_DISTANCE считает косинус углового расстояния от локации до точки, заданной
+ * косинусом и синусом широты и долготой в радианах.
+ */
+public class EwmPostgreSQLDialect extends PostgreSQL10Dialect {
+    public static final String TEXT_MATCH = "event_text_match";
+    public static final String TEXT_RANK = "event_text_rank";
+    public static final String LOCATION_COS_DISTANCE = "location_cos_distance";
+
+    private static final String TEXT_VECTOR = "(setweight(to_tsvector('russian', coalesce(?1, '')), 'A') || " +
+            "setweight(to_tsvector('russian', coalesce(?2, '')), 'B'))";
+    private static final String TEXT_QUERY = "plainto_tsquery('russian', ?3)";
+
+    public EwmPostgreSQLDialect() {
+        super();
+        registerTextSearchFunctions();
+        registerFunction(LOCATION_COS_DISTANCE, new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "(?3 * cos(radians(?1)) * cos(radians(?2) - ?5) + ?4 * sin(radians(?1)))"));
+    }
+
+    protected void registerTextSearchFunctions() {
+        registerFunction(TEXT_MATCH, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN,
+                TEXT_VECTOR + " @@ " + TEXT_QUERY));
+        registerFunction(TEXT_RANK, new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "ts_rank(" + TEXT_VECTOR + ", " + TEXT_QUERY + ")"));
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.main_service.event.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,7 +14,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.main_service.Utils;
 import ru.practicum.main_service.event.dto.EventFullDto;
+import ru.practicum.main_service.event.dto.EventPage;
 import ru.practicum.main_service.event.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.main_service.event.dto.EventRequestStatusUpdateResult;
 import ru.practicum.main_service.event.dto.EventShortDto;
@@ -37,12 +40,18 @@ public class EventPrivateController {
     private final RequestService requestService;
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<EventShortDto> getAllEventsByPrivate(
+    public ResponseEntity<List<EventShortDto>> getAllEventsByPrivate(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return eventService.getAllEventsByPrivate(userId, PageRequest.of(from / size, size));
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
+        EventPage<EventShortDto> page = eventService.getAllEventsByPrivate(userId, PageRequest.of(from / size, size),
+                cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(Utils.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getEvents());
     }
 
     @PostMapping
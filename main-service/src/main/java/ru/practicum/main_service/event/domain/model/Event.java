@@ -22,18 +22,26 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "events")
+@NamedEntityGraph(name = Event.DETAILS_GRAPH, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("initiator")
+})
 @Getter
 @Setter
 @EqualsAndHashCode
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Event {
+public class Event implements ViewableEvent {
+    public static final String DETAILS_GRAPH = "Event.details";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,7 +53,7 @@ public class Event {
     @Column(nullable = false, length = 2000)
     private String annotation;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", referencedColumnName = "id")
     private Category category;
 
@@ -61,7 +69,7 @@ public class Event {
     @Column(nullable = false)
     private LocalDateTime eventDate;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id", referencedColumnName = "id")
     private Location location;
 
@@ -74,11 +82,19 @@ public class Event {
 
     LocalDateTime publishedOn;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User initiator;
 
     @Column(nullable = false)
     private Boolean requestModeration;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long confirmedRequests = 0L;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long views = 0L;
 }
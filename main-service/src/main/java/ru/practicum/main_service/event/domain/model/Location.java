@@ -6,16 +6,21 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 
 @Entity
 @Table(name = "locations")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "locations")
 @Getter
 @Setter
 @EqualsAndHashCode
@@ -33,4 +38,13 @@ public class Location {
 
     @Column(nullable = false)
     private Float lon;
+
+    @EqualsAndHashCode.Exclude
+    private Long cell;
+
+    @PrePersist
+    @PreUpdate
+    private void fillCell() {
+        cell = LocationGrid.cell(lat, lon);
+    }
 }
@@ -0,0 +1,97 @@
+package ru.practicum.main_service.event.domain.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сетка 0,1° × 0,1° для поиска локаций рядом с точкой. Номер ячейки растет сначала по долготе, затем по широте,
+ * поэтому ячейки одной полосы широт образуют непрерывный диапазон и читаются по индексу одним сканированием.
+ */
+public final class LocationGrid {
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    public static final double MAX_SEARCH_RADIUS_KM = 1000.0;
+
+    private static final double CELL_DEGREES = 0.1;
+    private static final int LAT_CELLS = 1800;
+    private static final int LON_CELLS = 3600;
+    private static final int MAX_NARROW_ROWS = 16;
+
+    private LocationGrid() {
+    }
+
+    public static long cell(double lat, double lon) {
+        return (long) latIndex(lat) * LON_CELLS + Math.floorMod(rawLonIndex(lon), LON_CELLS);
+    }
+
+    /**
+     * Диапазоны ячеек, покрывающие круг радиуса radiusKm. Берется запас в одну ячейку с каждой стороны,
+     * чтобы округление координат в базе не отрезало точки на границе ячеек. Если полос широт больше
+     * MAX_NARROW_ROWS, они берутся целиком и сливаются в один диапазон, чтобы условие не росло с радиусом.
+     */
+    public static List<CellRange> cellRanges(double lat, double lon, double radiusKm) {
+        double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        int latFrom = Math.max(0, latIndex(lat - latDelta) - 1);
+        int latTo = Math.min(LAT_CELLS - 1, latIndex(lat + latDelta) + 1);
+
+        List<int[]> lonRanges = latTo - latFrom + 1 > MAX_NARROW_ROWS
+                ? List.of(new int[]{0, LON_CELLS - 1})
+                : lonRanges(lat, lon, latDelta);
+        List<CellRange> ranges = new ArrayList<>();
+        for (int row = latFrom; row <= latTo; row++) {
+            for (int[] lonRange : lonRanges) {
+                add(ranges, (long) row * LON_CELLS + lonRange[0], (long) row * LON_CELLS + lonRange[1]);
+            }
+        }
+        return ranges;
+    }
+
+    private static List<int[]> lonRanges(double lat, double lon, double latDelta) {
+        double farthestLat = Math.min(90.0, Math.abs(lat) + latDelta);
+        double cos = Math.cos(Math.toRadians(farthestLat));
+        if (cos < 1e-6 || latDelta / cos >= 180.0) {
+            return List.of(new int[]{0, LON_CELLS - 1});
+        }
+
+        double lonDelta = latDelta / cos;
+        int from = rawLonIndex(lon - lonDelta) - 1;
+        int to = rawLonIndex(lon + lonDelta) + 1;
+        if (to - from + 1 >= LON_CELLS) {
+            return List.of(new int[]{0, LON_CELLS - 1});
+        }
+        if (from < 0) {
+            return List.of(new int[]{0, to}, new int[]{from + LON_CELLS, LON_CELLS - 1});
+        }
+        if (to >= LON_CELLS) {
+            return List.of(new int[]{0, to - LON_CELLS}, new int[]{from, LON_CELLS - 1});
+        }
+        return List.of(new int[]{from, to});
+    }
+
+    private static void add(List<CellRange> ranges, long from, long to) {
+        if (!ranges.isEmpty() && ranges.get(ranges.size() - 1).getTo() + 1 >= from) {
+            CellRange last = ranges.remove(ranges.size() - 1);
+            ranges.add(new CellRange(last.getFrom(), Math.max(last.getTo(), to)));
+        } else {
+            ranges.add(new CellRange(from, to));
+        }
+    }
+
+    private static int latIndex(double lat) {
+        int index = (int) Math.floor((lat + 90.0) / CELL_DEGREES);
+        return Math.max(0, Math.min(LAT_CELLS - 1, index));
+    }
+
+    private static int rawLonIndex(double lon) {
+        return (int) Math.floor((lon + 180.0) / CELL_DEGREES);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class CellRange {
+        private final long from;
+        private final long to;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.main_service.event.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поля события, по которым считаются просмотры и подтвержденные заявки.
+ */
+public interface ViewableEvent {
+    Long getId();
+
+    LocalDateTime getPublishedOn();
+
+    Long getConfirmedRequests();
+}
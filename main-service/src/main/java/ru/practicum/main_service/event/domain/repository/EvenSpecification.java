@@ -1,6 +1,8 @@
 package ru.practicum.main_service.event.domain.repository;
 
 import ru.practicum.main_service.event.domain.model.Event;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventSortType;
 import ru.practicum.main_service.event.enums.EventState;
 
 import java.time.LocalDateTime;
@@ -9,8 +11,11 @@ import java.util.List;
 public interface EvenSpecification {
 
     List<Event> findAllForAdmin(List<Long> users, List<EventState> states, List<Long> categories,
-                                LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
+                                LocalDateTime rangeStart, LocalDateTime rangeEnd, Long afterId, Integer from,
+                                Integer size);
 
-    List<Event> findAllForPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                 LocalDateTime rangeEnd, Integer from, Integer size);
+    List<EventShortView> findAllForPublic(String text, List<Long> categories, Boolean paid,
+                                          LocalDateTime rangeStart, LocalDateTime rangeEnd, Boolean onlyAvailable,
+                                          Float lat, Float lon, Float radius, EventSortType sort,
+                                          EventShortView after, Integer from, Integer size);
 }
@@ -1,13 +1,23 @@
 package ru.practicum.main_service.event.domain.repository;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.main_service.category.domain.model.Category;
+import ru.practicum.main_service.dialect.EwmPostgreSQLDialect;
 import ru.practicum.main_service.event.domain.model.Event;
+import ru.practicum.main_service.event.domain.model.Location;
+import ru.practicum.main_service.event.domain.model.LocationGrid;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventSortType;
 import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.user.domain.model.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.time.LocalDateTime;
@@ -20,7 +30,8 @@ public class EvenSpecificationImpl implements EvenSpecification {
     private EntityManager entityManager;
 
     public List<Event> findAllForAdmin(List<Long> users, List<EventState> states, List<Long> categories,
-                                       LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size) {
+                                       LocalDateTime rangeStart, LocalDateTime rangeEnd, Long afterId, Integer from,
+                                       Integer size) {
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
         CriteriaQuery<Event> query = builder.createQuery(Event.class);
         Root<Event> root = query.from(Event.class);
@@ -46,21 +57,40 @@ public class EvenSpecificationImpl implements EvenSpecification {
             criteria = builder.and(criteria, builder.lessThanOrEqualTo(root.get("eventDate"), rangeEnd));
         }
 
-        query.select(root).where(criteria);
+        if (afterId != null) {
+            criteria = builder.and(criteria, builder.greaterThan(root.get("id"), afterId));
+        }
+
+        root.fetch("category", JoinType.LEFT);
+        root.fetch("location", JoinType.LEFT);
+        root.fetch("initiator", JoinType.LEFT);
+
+        query.select(root).where(criteria).orderBy(builder.asc(root.get("id")));
         return entityManager.createQuery(query).setFirstResult(from).setMaxResults(size).getResultList();
     }
 
-    public List<Event> findAllForPublic(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                        LocalDateTime rangeEnd, Integer from, Integer size) {
+    public List<EventShortView> findAllForPublic(String text, List<Long> categories, Boolean paid,
+                                                 LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                 Boolean onlyAvailable, Float lat, Float lon, Float radius,
+                                                 EventSortType sort, EventShortView after, Integer from,
+                                                 Integer size) {
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Event> query = builder.createQuery(Event.class);
+        CriteriaQuery<EventShortView> query = builder.createQuery(EventShortView.class);
         Root<Event> root = query.from(Event.class);
+        Join<Event, Category> category = root.join("category");
+        Join<Event, User> initiator = root.join("initiator");
         Predicate criteria = builder.conjunction();
 
         if (text != null && !text.isBlank()) {
-            Predicate annotation = builder.like(builder.lower(root.get("annotation")), "%" + text.toLowerCase() + "%");
-            Predicate description = builder.like(builder.lower(root.get("description")), "%" + text.toLowerCase() + "%");
-            criteria = builder.and(criteria, builder.or(annotation, description));
+            Expression<String> annotation = root.get("annotation");
+            Expression<String> description = root.get("description");
+            Expression<String> searchText = builder.literal(text);
+            criteria = builder.and(criteria, builder.isTrue(builder.function(EwmPostgreSQLDialect.TEXT_MATCH,
+                    Boolean.class, annotation, description, searchText)));
+            if (sort == null) {
+                query.orderBy(builder.desc(builder.function(EwmPostgreSQLDialect.TEXT_RANK, Double.class,
+                        annotation, description, searchText)), builder.asc(root.get("id")));
+            }
         }
 
         if (categories != null && !categories.isEmpty()) {
@@ -85,8 +115,62 @@ public class EvenSpecificationImpl implements EvenSpecification {
 
         criteria = builder.and(criteria, root.get("state").in(EventState.PUBLISHED));
 
-        query.select(root).where(criteria);
+        if (Boolean.TRUE.equals(onlyAvailable)) {
+            criteria = builder.and(criteria, builder.or(
+                    builder.equal(root.get("participantLimit"), 0),
+                    builder.gt(root.get("participantLimit"), root.get("confirmedRequests"))));
+        }
+
+        if (lat != null && lon != null && radius != null) {
+            criteria = builder.and(criteria, withinRadius(builder, root.join("location"), lat, lon, radius));
+        }
+
+        if (sort == EventSortType.EVENT_DATE) {
+            criteria = builder.and(criteria, after(builder, root, "eventDate",
+                    after == null ? null : after.getEventDate(), after));
+            query.orderBy(builder.asc(root.get("eventDate")), builder.asc(root.get("id")));
+        } else if (sort == EventSortType.VIEWS) {
+            criteria = builder.and(criteria, after(builder, root, "views", after == null ? null : after.getViews(),
+                    after));
+            query.orderBy(builder.asc(root.get("views")), builder.asc(root.get("id")));
+        } else if (text == null || text.isBlank()) {
+            if (after != null) {
+                criteria = builder.and(criteria, builder.greaterThan(root.get("id"), after.getId()));
+            }
+            query.orderBy(builder.asc(root.get("id")));
+        }
+
+        query.select(builder.construct(EventShortView.class, root.get("id"), root.get("annotation"),
+                category.get("id"), category.get("name"), root.get("eventDate"), initiator.get("id"),
+                initiator.get("name"), root.get("paid"), root.get("title"), root.get("participantLimit"),
+                root.get("confirmedRequests"), root.get("publishedOn"), root.get("views"))).where(criteria);
         return entityManager.createQuery(query).setFirstResult(from).setMaxResults(size).getResultList();
 
     }
+
+    private Predicate withinRadius(CriteriaBuilder builder, Join<Event, Location> location, double lat, double lon,
+                                   double radius) {
+        Expression<Long> cell = location.get("cell");
+        Predicate[] cells = LocationGrid.cellRanges(lat, lon, radius).stream()
+                .map(range -> builder.between(cell, range.getFrom(), range.getTo()))
+                .toArray(Predicate[]::new);
+
+        double latRadians = Math.toRadians(lat);
+        Expression<Double> cosDistance = builder.function(EwmPostgreSQLDialect.LOCATION_COS_DISTANCE, Double.class,
+                location.get("lat"), location.get("lon"), builder.literal(Math.cos(latRadians)),
+                builder.literal(Math.sin(latRadians)), builder.literal(Math.toRadians(lon)));
+
+        return builder.and(builder.or(cells), builder.greaterThanOrEqualTo(cosDistance,
+                Math.cos(radius / LocationGrid.EARTH_RADIUS_KM)));
+    }
+
+    private <T extends Comparable<? super T>> Predicate after(CriteriaBuilder builder, Root<Event> root,
+                                                              String attribute, T value, EventShortView after) {
+        if (after == null) {
+            return builder.conjunction();
+        }
+        Expression<T> key = root.get(attribute);
+        return builder.or(builder.greaterThan(key, value),
+                builder.and(builder.equal(key, value), builder.greaterThan(root.get("id"), after.getId())));
+    }
 }
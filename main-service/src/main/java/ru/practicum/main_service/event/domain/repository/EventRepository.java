@@ -1,16 +1,87 @@
 package ru.practicum.main_service.event.domain.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.main_service.event.domain.model.Event;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventState;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, EvenSpecification {
-    List<Event> findAllByInitiatorId(Long userId, Pageable pageable);
+    @Override
+    @EntityGraph(Event.DETAILS_GRAPH)
+    Optional<Event> findById(Long eventId);
 
+    @Query("SELECT new ru.practicum.main_service.event.dto.EventShortView(e.id, e.annotation, c.id, c.name, " +
+            "e.eventDate, i.id, i.name, e.paid, e.title, e.participantLimit, e.confirmedRequests, e.publishedOn, " +
+            "e.views) " +
+            "FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "JOIN e.initiator AS i " +
+            "WHERE i.id = ?1 " +
+            "ORDER BY e.id")
+    List<EventShortView> findAllShortByInitiatorId(Long userId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.main_service.event.dto.EventShortView(e.id, e.annotation, c.id, c.name, " +
+            "e.eventDate, i.id, i.name, e.paid, e.title, e.participantLimit, e.confirmedRequests, e.publishedOn, " +
+            "e.views) " +
+            "FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "JOIN e.initiator AS i " +
+            "WHERE i.id = ?1 " +
+            "AND e.id > ?2 " +
+            "ORDER BY e.id")
+    List<EventShortView> findAllShortByInitiatorIdAfter(Long userId, Long afterId, Pageable pageable);
+
+    @Query("SELECT new ru.practicum.main_service.event.dto.EventShortView(e.id, e.annotation, c.id, c.name, " +
+            "e.eventDate, i.id, i.name, e.paid, e.title, e.participantLimit, e.confirmedRequests, e.publishedOn, " +
+            "e.views) " +
+            "FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "JOIN e.initiator AS i " +
+            "WHERE e.id IN ?1")
+    List<EventShortView> findAllShortByIdIn(Collection<Long> eventsId);
+
+    @Query("SELECT new ru.practicum.main_service.event.dto.EventShortView(e.id, e.annotation, c.id, c.name, " +
+            "e.eventDate, i.id, i.name, e.paid, e.title, e.participantLimit, e.confirmedRequests, e.publishedOn, " +
+            "e.views) " +
+            "FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "JOIN e.initiator AS i " +
+            "WHERE e.state = ?1 " +
+            "AND e.id > ?2 " +
+            "ORDER BY e.id")
+    List<EventShortView> findAllShortByStateAfter(EventState state, Long afterId, Pageable pageable);
+
+    @EntityGraph(Event.DETAILS_GRAPH)
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
+    @EntityGraph(Event.DETAILS_GRAPH)
     List<Event> findAllByIdIn(List<Long> eventsId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event AS e " +
+            "SET e.confirmedRequests = e.confirmedRequests + ?2 " +
+            "WHERE e.id = ?1")
+    int addConfirmedRequests(Long eventId, long delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event AS e " +
+            "SET e.confirmedRequests = e.confirmedRequests + ?2 " +
+            "WHERE e.id = ?1 " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + ?2 <= e.participantLimit)")
+    int addConfirmedRequestsWithinLimit(Long eventId, long delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e " +
+            "SET e.views = ?2 " +
+            "WHERE e.id = ?1 " +
+            "AND e.views < ?2")
+    int updateViews(Long eventId, long views);
 }
@@ -0,0 +1,6 @@
+package ru.practicum.main_service.event.domain.repository;
+
+public interface LocationUpserter {
+
+    Long upsert(Float lat, Float lon);
+}
@@ -0,0 +1,42 @@
+package ru.practicum.main_service.event.domain.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.main_service.event.domain.model.LocationGrid;
+
+import java.util.List;
+
+/**
+ * Поиск или создание локации по уникальному индексу uq_locations_lat_lon. Вставка пропускается, если локация
+ * уже есть, поэтому повторное использование локации не переписывает строку; id существующей строки читается
+ * отдельным запросом. В PostgreSQL это INSERT ... ON CONFLICT DO NOTHING, в H2 — INSERT ... WHERE NOT EXISTS,
+ * так как ON CONFLICT там не поддерживается.
+ */
+@Component
+public class LocationUpserterImpl implements LocationUpserter {
+    private static final String POSTGRESQL_INSERT = "INSERT INTO locations (lat, lon, cell) VALUES (?, ?, ?) " +
+            "ON CONFLICT (lat, lon) DO NOTHING RETURNING id";
+    private static final String H2_INSERT = "SELECT id FROM FINAL TABLE " +
+            "(INSERT INTO locations (lat, lon, cell) SELECT v.lat, v.lon, v.cell " +
+            "FROM (VALUES (CAST(? AS REAL), CAST(? AS REAL), CAST(? AS BIGINT))) AS v (lat, lon, cell) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM locations AS l WHERE l.lat = v.lat AND l.lon = v.lon))";
+    private static final String SELECT = "SELECT id FROM locations WHERE lat = ? AND lon = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insert;
+
+    public LocationUpserterImpl(JdbcTemplate jdbcTemplate,
+                                @Value("${spring.sql.init.platform:postgresql}") String platform) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insert = "h2".equals(platform) ? H2_INSERT : POSTGRESQL_INSERT;
+    }
+
+    public Long upsert(Float lat, Float lon) {
+        List<Long> inserted = jdbcTemplate.queryForList(insert, Long.class, lat, lon, LocationGrid.cell(lat, lon));
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        return jdbcTemplate.queryForObject(SELECT, Long.class, lat, lon);
+    }
+}
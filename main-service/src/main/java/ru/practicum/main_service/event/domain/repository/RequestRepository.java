@@ -3,27 +3,35 @@ package ru.practicum.main_service.event.domain.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.main_service.event.domain.model.Request;
-import ru.practicum.main_service.event.dto.RequestStats;
+import ru.practicum.main_service.event.dto.ParticipationRequestDto;
 import ru.practicum.main_service.event.enums.RequestStatus;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface RequestRepository extends JpaRepository<Request, Long> {
+public interface RequestRepository extends JpaRepository<Request, Long>, RequestStatusUpdater {
+    @Query("SELECT r FROM Request AS r WHERE r.requester.id = ?1")
     List<Request> findAllByRequesterId(Long requesterId);
 
+    @Query("SELECT r FROM Request AS r WHERE r.event.id = ?1 AND r.requester.id = ?2")
     Optional<Request> findByEventIdAndRequesterId(Long eventId, Long userId);
 
-    List<Request> findAllByEventIdAndStatus(Long eventId, RequestStatus status);
-
+    @Query("SELECT r FROM Request AS r WHERE r.event.id = ?1")
     List<Request> findAllByEventId(Long eventId);
 
     List<Request> findAllByIdIn(List<Long> requestIds);
 
-    @Query("SELECT new ru.practicum.main_service.event.dto.RequestStats(r.event.id, count(r.id)) " +
+    @Query("SELECT new ru.practicum.main_service.event.dto.ParticipationRequestDto(" +
+            "r.id, r.event.id, r.requester.id, r.created, r.status) " +
+            "FROM Request AS r " +
+            "WHERE r.event.id = ?1 " +
+            "AND r.id IN ?2")
+    List<ParticipationRequestDto> findParticipationRequests(Long eventId, List<Long> requestIds);
+
+    @Query("SELECT new ru.practicum.main_service.event.dto.ParticipationRequestDto(" +
+            "r.id, r.event.id, r.requester.id, r.created, r.status) " +
             "FROM Request AS r " +
-            "WHERE r.event.id IN ?1 " +
-            "AND r.status = 'CONFIRMED' " +
-            "GROUP BY r.event.id")
-    List<RequestStats> getConfirmedRequests(List<Long> eventsId);
+            "WHERE r.event.id = ?1 " +
+            "AND r.status = ?2")
+    List<ParticipationRequestDto> findParticipationRequestsByStatus(Long eventId, RequestStatus status);
 }
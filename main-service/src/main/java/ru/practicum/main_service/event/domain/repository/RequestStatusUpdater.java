@@ -0,0 +1,10 @@
+package ru.practicum.main_service.event.domain.repository;
+
+import ru.practicum.main_service.event.enums.RequestStatus;
+
+import java.util.List;
+
+public interface RequestStatusUpdater {
+
+    int updateStatus(List<Long> requestIds, RequestStatus from, RequestStatus to);
+}
@@ -0,0 +1,45 @@
+package ru.practicum.main_service.event.domain.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.main_service.event.enums.RequestStatus;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Пакетная смена статусов заявок одним JDBC-батчем без загрузки сущностей в контекст Hibernate.
+ * Строка обновляется, только если заявка всё ещё находится в исходном статусе.
+ */
+@Component
+public class RequestStatusUpdaterImpl implements RequestStatusUpdater {
+    private static final String UPDATE_STATUS = "UPDATE requests SET status = ? WHERE id = ? AND status = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public RequestStatusUpdaterImpl(JdbcTemplate jdbcTemplate,
+                                    @Value("${app.requests.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public int updateStatus(List<Long> requestIds, RequestStatus from, RequestStatus to) {
+        if (requestIds.isEmpty()) {
+            return 0;
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS, requestIds, batchSize, (ps, id) -> {
+            ps.setString(1, to.name());
+            ps.setLong(2, id);
+            ps.setString(3, from.name());
+        });
+
+        return Arrays.stream(counts)
+                .flatMapToInt(Arrays::stream)
+                .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : count)
+                .sum();
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.main_service.event.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class EventPage<T> {
+    private final List<T> events;
+    private final String nextCursor;
+}
@@ -0,0 +1,35 @@
+package ru.practicum.main_service.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.practicum.main_service.event.domain.model.ViewableEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция события для краткого представления: без описания и локации, категория и инициатор
+ * выбираются в том же запросе.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EventShortView implements ViewableEvent {
+    private Long id;
+    private String annotation;
+    private Long categoryId;
+    private String categoryName;
+    private LocalDateTime eventDate;
+    private Long initiatorId;
+    private String initiatorName;
+    private Boolean paid;
+    private String title;
+    private Integer participantLimit;
+    private Long confirmedRequests;
+    private LocalDateTime publishedOn;
+    private Long views;
+}
@@ -8,6 +8,7 @@ import ru.practicum.main_service.event.domain.model.Event;
 import ru.practicum.main_service.event.domain.model.Location;
 import ru.practicum.main_service.event.dto.EventFullDto;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortView;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.user.domain.model.User;
@@ -21,9 +22,19 @@ public interface EventMapper {
     @Mapping(target = "category", source = "category")
     @Mapping(target = "location", source = "location")
     @Mapping(target = "publishedOn", ignore = true)
+    @Mapping(target = "confirmedRequests", ignore = true)
     Event toEvent(NewEventDto newEventDto, User initiator, Category category, Location location, LocalDateTime createdOn, EventState state);
 
+    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
     EventFullDto toEventFullDto(Event event, Long confirmedRequests, Long views);
 
+    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
     EventShortDto toEventShortDto(Event event, Long confirmedRequests, Long views);
+
+    @Mapping(target = "category.id", source = "event.categoryId")
+    @Mapping(target = "category.name", source = "event.categoryName")
+    @Mapping(target = "initiator.id", source = "event.initiatorId")
+    @Mapping(target = "initiator.name", source = "event.initiatorName")
+    @Mapping(target = "confirmedRequests", source = "confirmedRequests")
+    EventShortDto toEventShortDto(EventShortView event, Long confirmedRequests, Long views);
 }
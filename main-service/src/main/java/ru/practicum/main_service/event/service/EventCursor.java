@@ -0,0 +1,85 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.main_service.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор выдачи событий. Для выдачи по id, дате события или просмотрам хранит ключ сортировки
+ * и id последнего отданного события, для выдачи по релевантности текстового поиска — смещение следующей страницы.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class EventCursor {
+    private static final String AFTER_ID = "id";
+    private static final String AFTER_EVENT_DATE = "date";
+    private static final String AFTER_VIEWS = "views";
+    private static final String OFFSET = "offset";
+    private static final String SEPARATOR = ":";
+
+    private final Long afterId;
+    private final LocalDateTime afterEventDate;
+    private final Long afterViews;
+    private final int offset;
+
+    static String afterId(Long id) {
+        return encode(AFTER_ID + SEPARATOR + id);
+    }
+
+    static String afterEventDate(Long id, LocalDateTime eventDate) {
+        return encode(AFTER_EVENT_DATE + SEPARATOR + id + SEPARATOR + eventDate);
+    }
+
+    static String afterViews(Long id, Long views) {
+        return encode(AFTER_VIEWS + SEPARATOR + id + SEPARATOR + views);
+    }
+
+    static String offset(int offset) {
+        return encode(OFFSET + SEPARATOR + offset);
+    }
+
+    static EventCursor decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(SEPARATOR, 3);
+            if (parts.length == 2 && AFTER_ID.equals(parts[0])) {
+                return new EventCursor(Long.parseLong(parts[1]), null, null, 0);
+            }
+            if (parts.length == 3 && AFTER_EVENT_DATE.equals(parts[0])) {
+                return new EventCursor(Long.parseLong(parts[1]), LocalDateTime.parse(parts[2]), null, 0);
+            }
+            if (parts.length == 3 && AFTER_VIEWS.equals(parts[0])) {
+                return new EventCursor(Long.parseLong(parts[1]), null, Long.parseLong(parts[2]), 0);
+            }
+            if (parts.length == 2 && OFFSET.equals(parts[0])) {
+                int offset = Integer.parseInt(parts[1]);
+                if (offset >= 0) {
+                    return new EventCursor(null, null, null, offset);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException exception) {
+            log.debug("Не удалось разобрать курсор {}", cursor, exception);
+        }
+        throw invalid(cursor);
+    }
+
+    static ValidationException invalid(String cursor) {
+        return new ValidationException(String.format("Field: cursor. Error: некорректный курсор. Value: %s", cursor));
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
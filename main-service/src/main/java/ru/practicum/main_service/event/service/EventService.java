@@ -2,17 +2,24 @@ package ru.practicum.main_service.event.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.main_service.category.domain.model.Category;
-import ru.practicum.main_service.category.domain.repository.CategoryRepository;
+import ru.practicum.main_service.category.service.CategorySnapshot;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.event.domain.model.Event;
 import ru.practicum.main_service.event.domain.model.Location;
+import ru.practicum.main_service.event.domain.model.LocationGrid;
+import ru.practicum.main_service.event.domain.model.ViewableEvent;
 import ru.practicum.main_service.event.domain.repository.EventRepository;
 import ru.practicum.main_service.event.domain.repository.LocationRepository;
 import ru.practicum.main_service.event.dto.EventFullDto;
+import ru.practicum.main_service.event.dto.EventPage;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortView;
 import ru.practicum.main_service.event.dto.LocationDto;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.dto.UpdateEventAdminRequest;
@@ -30,8 +37,7 @@ import ru.practicum.main_service.user.domain.repository.UserRepository;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -42,25 +48,29 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class EventService {
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategorySnapshot categorySnapshot;
     private final StatsService statsService;
     private final LocationRepository locationRepository;
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final LocationMapper locationMapper;
+    private final CompilationCache compilationCache;
 
 
-    public List<EventFullDto> getEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories,
-                                               LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size) {
+    public EventPage<EventFullDto> getEventsByAdmin(List<Long> users, List<EventState> states, List<Long> categories,
+                                                    LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from,
+                                                    Integer size, String cursor) {
         log.info("Получение всех событий для администратора с параметрами users = {}, states = {}, categoriesId = {}, " +
-                        "rangeStart = {}, rangeEnd = {}, from = {}, size = {}",
-                users, states, categories, rangeStart, rangeEnd, from, size);
+                        "rangeStart = {}, rangeEnd = {}, from = {}, size = {}, cursor = {}",
+                users, states, categories, rangeStart, rangeEnd, from, size, cursor);
 
         checkStartIsBeforeEnd(rangeStart, rangeEnd);
+        EventCursor after = decodeCursor(cursor, from);
 
-        List<Event> events = eventRepository.findAllForAdmin(users, states, categories, rangeStart, rangeEnd, from, size);
+        List<Event> events = eventRepository.findAllForAdmin(users, states, categories, rangeStart, rangeEnd,
+                afterId(after, cursor), from, size);
 
-        return toEventsFullDto(events);
+        return new EventPage<>(toEventsFullDto(events), nextCursorAfterId(events, size));
     }
 
 
@@ -81,7 +91,7 @@ public class EventService {
         }
 
         if (updateEventAdminRequest.getCategory() != null) {
-            event.setCategory(categoryRepository.findById(updateEventAdminRequest.getCategory())
+            event.setCategory(categorySnapshot.findById(updateEventAdminRequest.getCategory())
                     .orElseThrow(() -> new NotFoundException("Категория не найдена.")));
         }
 
@@ -129,17 +139,23 @@ public class EventService {
             event.setTitle(updateEventAdminRequest.getTitle());
         }
 
+        compilationCache.evictEvent(eventId);
+
         return toEventFullDto(eventRepository.save(event));
     }
 
-    public List<EventShortDto> getAllEventsByPrivate(Long userId, Pageable pageable) {
-        log.info("Получение событий пользователя с id {} и пагинацией {}", userId, pageable);
+    public EventPage<EventShortDto> getAllEventsByPrivate(Long userId, Pageable pageable, String cursor) {
+        log.info("Получение событий пользователя с id {}, пагинацией {} и курсором {}", userId, pageable, cursor);
 
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с таким id не найден."));
 
-        List<Event> events = eventRepository.findAllByInitiatorId(userId, pageable);
+        EventCursor after = decodeCursor(cursor, (int) pageable.getOffset());
+        List<EventShortView> events = after == null
+                ? eventRepository.findAllShortByInitiatorId(userId, pageable)
+                : eventRepository.findAllShortByInitiatorIdAfter(userId, afterId(after, cursor),
+                PageRequest.of(0, pageable.getPageSize()));
 
-        return toEventsShortDto(events);
+        return new EventPage<>(viewsToEventsShortDto(events), nextCursorAfterId(events, pageable.getPageSize()));
     }
 
     @Transactional
@@ -149,7 +165,7 @@ public class EventService {
         checkNewEventDate(newEventDto.getEventDate(), LocalDateTime.now().plusHours(2));
 
         User eventUser = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с таким id не найден."));
-        Category eventCategory = categoryRepository.findById(newEventDto.getCategory())
+        Category eventCategory = categorySnapshot.findById(newEventDto.getCategory())
                 .orElseThrow(() -> new NotFoundException("Категория не найдена."));
         Location eventLocation = getOrSaveLocation(newEventDto.getLocation());
 
@@ -189,7 +205,7 @@ public class EventService {
         }
 
         if (updateEventUserRequest.getCategory() != null) {
-            event.setCategory(categoryRepository.findById(updateEventUserRequest.getCategory())
+            event.setCategory(categorySnapshot.findById(updateEventUserRequest.getCategory())
                     .orElseThrow(() -> new NotFoundException("Категория не найдена.")));
         }
 
@@ -232,49 +248,50 @@ public class EventService {
             event.setTitle(updateEventUserRequest.getTitle());
         }
 
+        compilationCache.evictEvent(eventId);
+
         return toEventFullDto(eventRepository.save(event));
     }
 
-    public List<EventShortDto> getEventsByPublic(
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EventPage<EventShortDto> getEventsByPublic(
             String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart, LocalDateTime rangeEnd,
-            Boolean onlyAvailable, EventSortType sort, Integer from, Integer size, HttpServletRequest request) {
+            Boolean onlyAvailable, Float lat, Float lon, Float radius, EventSortType sort, Integer from, Integer size,
+            String cursor, HttpServletRequest request) {
         log.info("Получение всех событий для публичного запроса с параметрами text = {}, categoriesId = {}, paid = {}, rangeStart = {}, " +
-                        "rangeEnd = {}, onlyAvailable = {}, sort = {}, from = {}, size = {}",
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+                        "rangeEnd = {}, onlyAvailable = {}, lat = {}, lon = {}, radius = {}, sort = {}, from = {}, " +
+                        "size = {}, cursor = {}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, lat, lon, radius, sort, from, size, cursor);
 
         checkStartIsBeforeEnd(rangeStart, rangeEnd);
+        checkSearchArea(lat, lon, radius);
+        EventCursor after = decodeCursor(cursor, from);
+        boolean rankedByText = text != null && !text.isBlank() && sort == null;
+        EventShortView keyset = rankedByText ? null : keyset(after, sort, cursor);
+        int offset = rankedByText ? offset(after, from, cursor) : from;
 
-        List<Event> events = eventRepository.findAllForPublic(text, categories,
-                paid, rangeStart, rangeEnd, from, size);
+        List<EventShortView> events = eventRepository.findAllForPublic(text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, lat, lon, radius, sort, keyset, offset, size);
 
         if (events.isEmpty()) {
-            return List.of();
+            return new EventPage<>(List.of(), null);
         }
 
-        Map<Long, Integer> eventsParticipantLimit = new HashMap<>();
-        events.forEach(event -> eventsParticipantLimit.put(event.getId(), event.getParticipantLimit()));
-
-        List<EventShortDto> eventsShortDto = toEventsShortDto(events);
+        String nextCursor = rankedByText
+                ? (events.size() < size ? null : EventCursor.offset(offset + size))
+                : nextCursorAfter(events, sort, size);
 
-        if (onlyAvailable) {
-            eventsShortDto = eventsShortDto.stream()
-                    .filter(eventShort -> (eventsParticipantLimit.get(eventShort.getId()) == 0 ||
-                            eventsParticipantLimit.get(eventShort.getId()) > eventShort.getConfirmedRequests()))
-                    .collect(Collectors.toList());
-        }
-
-        if (needSort(sort, EventSortType.VIEWS)) {
-            eventsShortDto.sort(Comparator.comparing(EventShortDto::getViews));
-        } else if (needSort(sort, EventSortType.EVENT_DATE)) {
-            eventsShortDto.sort(Comparator.comparing(EventShortDto::getEventDate));
-        }
+        List<EventShortDto> eventsShortDto = sort == EventSortType.VIEWS
+                ? storedViewsToEventsShortDto(events)
+                : viewsToEventsShortDto(events);
 
         statsService.saveHit(request);
 
-        return eventsShortDto;
+        return new EventPage<>(eventsShortDto, nextCursor);
     }
 
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EventFullDto getEventByPublic(Long eventId, HttpServletRequest request) {
         log.info("Получение события с id {} на публичный запрос", eventId);
 
@@ -289,6 +306,11 @@ public class EventService {
         return toEventFullDto(event);
     }
 
+    @Transactional
+    public void updateViews(Map<Long, Long> views) {
+        views.forEach(eventRepository::updateViews);
+    }
+
     public Event getEventById(Long eventId) {
         log.info("Вывод события с id {}", eventId);
 
@@ -296,17 +318,17 @@ public class EventService {
                 .orElseThrow(() -> new NotFoundException("События с таким id не найдено."));
     }
 
-    public List<Event> getEventsByIds(List<Long> eventsId) {
-        log.info("Вывод списка событий с ids {}", eventsId);
+    public List<EventShortDto> getEventsShortDtoByIds(Collection<Long> eventsId) {
+        log.info("Вывод кратких представлений событий с ids {}", eventsId);
 
         if (eventsId.isEmpty()) {
             return new ArrayList<>();
         }
 
-        return eventRepository.findAllByIdIn(eventsId);
+        return viewsToEventsShortDto(eventRepository.findAllShortByIdIn(eventsId));
     }
 
-    public List<EventShortDto> toEventsShortDto(List<Event> events) {
+    private List<EventShortDto> viewsToEventsShortDto(List<EventShortView> events) {
         Map<Long, Long> views = statsService.getViews(events);
         Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
 
@@ -318,6 +340,20 @@ public class EventService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Просмотры берутся из столбца events.views, по которому отсортирована страница, а не из сервиса статистики.
+     */
+    private List<EventShortDto> storedViewsToEventsShortDto(List<EventShortView> events) {
+        Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
+
+        return events.stream()
+                .map((event) -> eventMapper.toEventShortDto(
+                        event,
+                        confirmedRequests.getOrDefault(event.getId(), 0L),
+                        event.getViews()))
+                .collect(Collectors.toList());
+    }
+
     private List<EventFullDto> toEventsFullDto(List<Event> events) {
         Map<Long, Long> views = statsService.getViews(events);
         Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(events);
@@ -342,13 +378,75 @@ public class EventService {
     }
 
     private Location getOrSaveLocation(LocationDto locationDto) {
-        Location newLocation = locationMapper.toLocation(locationDto);
-        return locationRepository.findByLatAndLon(newLocation.getLat(), newLocation.getLon())
-                .orElseGet(() -> locationRepository.save(newLocation));
+        Location location = locationMapper.toLocation(locationDto);
+        location.setId(locationRepository.upsert(location.getLat(), location.getLon()));
+        return location;
     }
 
-    private Boolean needSort(EventSortType sort, EventSortType typeToCompare) {
-        return sort != null && sort.equals(typeToCompare);
+    private EventCursor decodeCursor(String cursor, int from) {
+        EventCursor after = EventCursor.decode(cursor);
+        if (after != null && from != 0) {
+            throw new ValidationException(String.format("Field: cursor. Error: курсор нельзя использовать вместе " +
+                    "с параметром from. Value: from = %s", from));
+        }
+        return after;
+    }
+
+    private Long afterId(EventCursor after, String cursor) {
+        if (after == null) {
+            return null;
+        }
+        if (after.getAfterId() == null || after.getAfterEventDate() != null || after.getAfterViews() != null) {
+            throw EventCursor.invalid(cursor);
+        }
+        return after.getAfterId();
+    }
+
+    private int offset(EventCursor after, int from, String cursor) {
+        if (after == null) {
+            return from;
+        }
+        if (after.getAfterId() != null) {
+            throw EventCursor.invalid(cursor);
+        }
+        return after.getOffset();
+    }
+
+    private String nextCursorAfterId(List<? extends ViewableEvent> events, int size) {
+        if (events.isEmpty() || events.size() < size) {
+            return null;
+        }
+        return EventCursor.afterId(events.get(events.size() - 1).getId());
+    }
+
+    private EventShortView keyset(EventCursor after, EventSortType sort, String cursor) {
+        if (after == null) {
+            return null;
+        }
+        if (after.getAfterId() == null
+                || (sort == EventSortType.EVENT_DATE) != (after.getAfterEventDate() != null)
+                || (sort == EventSortType.VIEWS) != (after.getAfterViews() != null)) {
+            throw EventCursor.invalid(cursor);
+        }
+        return EventShortView.builder()
+                .id(after.getAfterId())
+                .eventDate(after.getAfterEventDate())
+                .views(after.getAfterViews())
+                .build();
+    }
+
+    private String nextCursorAfter(List<EventShortView> events, EventSortType sort, int size) {
+        if (events.size() < size) {
+            return null;
+        }
+        EventShortView last = events.get(events.size() - 1);
+        if (sort == EventSortType.EVENT_DATE) {
+            return EventCursor.afterEventDate(last.getId(), last.getEventDate());
+        }
+        if (sort == EventSortType.VIEWS) {
+            return EventCursor.afterViews(last.getId(), last.getViews());
+        }
+        return EventCursor.afterId(last.getId());
     }
 
     private void checkStartIsBeforeEnd(LocalDateTime rangeStart, LocalDateTime rangeEnd) {
@@ -358,6 +456,24 @@ public class EventService {
         }
     }
 
+    private void checkSearchArea(Float lat, Float lon, Float radius) {
+        if (lat == null && lon == null && radius == null) {
+            return;
+        }
+        if (lat == null || lon == null || radius == null) {
+            throw new ValidationException(String.format("Field: radius. Error: для поиска рядом с точкой нужно " +
+                    "указать lat, lon и radius. Value: lat = %s, lon = %s, radius = %s", lat, lon, radius));
+        }
+        if (Math.abs(lat) > 90 || Math.abs(lon) > 180) {
+            throw new ValidationException(String.format("Field: lat, lon. Error: некорректные координаты. " +
+                    "Value: lat = %s, lon = %s", lat, lon));
+        }
+        if (radius <= 0 || radius > LocationGrid.MAX_SEARCH_RADIUS_KM) {
+            throw new ValidationException(String.format("Field: radius. Error: радиус должен быть больше 0 и не " +
+                    "больше %.0f км. Value: %s", LocationGrid.MAX_SEARCH_RADIUS_KM, radius));
+        }
+    }
+
     private void checkNewEventDate(LocalDateTime newEventDate, LocalDateTime minTimeBeforeEventStart) {
         if (newEventDate != null && newEventDate.isBefore(minTimeBeforeEventStart)) {
             throw new ValidationException(String.format("Field: eventDate. Error: остается слишком мало времени для " +
@@ -0,0 +1,77 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.main_service.event.domain.repository.EventRepository;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventState;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Переносит просмотры опубликованных событий из сервиса статистики в столбец events.views, по которому сортируется
+ * публичная выдача. Синхронизация идет по расписанию пакетами, поэтому просмотр события не пишет в базу.
+ */
+@Slf4j
+@Component
+public class EventViewsSync {
+    private final EventRepository eventRepository;
+    private final EventService eventService;
+    private final StatsService statsService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public EventViewsSync(EventRepository eventRepository,
+                          EventService eventService,
+                          StatsService statsService,
+                          @Value("${app.views-sync.enabled:true}") boolean enabled,
+                          @Value("${app.views-sync.batch-size:500}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.eventService = eventService;
+        this.statsService = statsService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.views-sync.interval-ms:60000}",
+            fixedDelayString = "${app.views-sync.interval-ms:60000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        int updated = 0;
+        List<EventShortView> events;
+        do {
+            events = eventRepository.findAllShortByStateAfter(EventState.PUBLISHED, afterId,
+                    PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                break;
+            }
+            updated += syncBatch(events);
+            afterId = events.get(events.size() - 1).getId();
+        } while (events.size() == batchSize);
+
+        log.info("Синхронизированы просмотры событий, обновлено {}", updated);
+    }
+
+    private int syncBatch(List<EventShortView> events) {
+        Map<Long, Long> views = statsService.getViews(events);
+        Map<Long, Long> changed = new HashMap<>();
+        for (EventShortView event : events) {
+            long current = views.getOrDefault(event.getId(), 0L);
+            if (current > event.getViews()) {
+                changed.put(event.getId(), current);
+            }
+        }
+        if (!changed.isEmpty()) {
+            eventService.updateViews(changed);
+        }
+        return changed.size();
+    }
+}
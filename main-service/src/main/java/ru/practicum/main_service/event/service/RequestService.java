@@ -83,6 +83,7 @@ public class RequestService {
 
         if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
             newRequest.setStatus(RequestStatus.CONFIRMED);
+            admitConfirmedRequests(event, 1);
         } else {
             newRequest.setStatus(RequestStatus.PENDING);
         }
@@ -101,6 +102,9 @@ public class RequestService {
 
         checkUserIsOwner(request.getRequester().getId(), userId);
 
+        if (request.getStatus() == RequestStatus.CONFIRMED) {
+            eventRepository.addConfirmedRequests(request.getEvent().getId(), -1);
+        }
         request.setStatus(RequestStatus.CANCELED);
 
         return requestMapper.toParticipationRequestDto(requestRepository.save(request));
@@ -133,41 +137,42 @@ public class RequestService {
             return new EventRequestStatusUpdateResult(List.of(), List.of());
         }
 
-        List<Request> confirmedList = new ArrayList<>();
-        List<Request> rejectedList = new ArrayList<>();
+        List<ParticipationRequestDto> confirmedList = new ArrayList<>();
+        List<ParticipationRequestDto> rejectedList = new ArrayList<>();
 
-        List<Request> requests = requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds());
+        List<ParticipationRequestDto> requests = requestRepository.findParticipationRequests(eventId,
+                eventRequestStatusUpdateRequest.getRequestIds());
 
         if (requests.size() != eventRequestStatusUpdateRequest.getRequestIds().size()) {
             throw new NotFoundException("Часть запросы на участие не найдено.");
         }
 
         if (!requests.stream()
-                .map(Request::getStatus)
+                .map(ParticipationRequestDto::getStatus)
                 .allMatch(RequestStatus.PENDING::equals)) {
             throw new ForbiddenException("Изменять можно только заявки, находящиеся в ожидании.");
         }
 
         if (eventRequestStatusUpdateRequest.getStatus().equals(RequestStatusAction.REJECTED)) {
-            rejectedList.addAll(changeStatusAndSave(requests, RequestStatus.REJECTED));
+            rejectedList.addAll(changePendingStatus(requests, RequestStatus.REJECTED));
         } else {
             Long newConfirmedRequests = statsService.getConfirmedRequests(List.of(event)).getOrDefault(eventId, 0L) +
                     eventRequestStatusUpdateRequest.getRequestIds().size();
 
             checkIsNewLimitGreaterOld(newConfirmedRequests, event.getParticipantLimit());
 
-            confirmedList.addAll(changeStatusAndSave(requests, RequestStatus.CONFIRMED));
+            admitConfirmedRequests(event, requests.size());
+            confirmedList.addAll(changePendingStatus(requests, RequestStatus.CONFIRMED));
 
             if (newConfirmedRequests >= event.getParticipantLimit()) {
-                rejectedList.addAll(changeStatusAndSave(
-                        requestRepository.findAllByEventIdAndStatus(eventId, RequestStatus.PENDING),
+                rejectedList.addAll(changePendingStatus(
+                        requestRepository.findParticipationRequestsByStatus(eventId, RequestStatus.PENDING),
                         RequestStatus.REJECTED)
                 );
             }
         }
 
-        return new EventRequestStatusUpdateResult(toParticipationRequestsDto(confirmedList),
-                toParticipationRequestsDto(rejectedList));
+        return new EventRequestStatusUpdateResult(confirmedList, rejectedList);
     }
 
     private List<ParticipationRequestDto> toParticipationRequestsDto(List<Request> requests) {
@@ -176,9 +181,25 @@ public class RequestService {
                 .collect(Collectors.toList());
     }
 
-    private List<Request> changeStatusAndSave(List<Request> requests, RequestStatus status) {
+    private List<ParticipationRequestDto> changePendingStatus(List<ParticipationRequestDto> requests,
+                                                              RequestStatus status) {
+        List<Long> requestIds = requests.stream()
+                .map(ParticipationRequestDto::getId)
+                .collect(Collectors.toList());
+
+        if (requestRepository.updateStatus(requestIds, RequestStatus.PENDING, status) != requestIds.size()) {
+            throw new ForbiddenException("Изменять можно только заявки, находящиеся в ожидании.");
+        }
+
         requests.forEach(request -> request.setStatus(status));
-        return requestRepository.saveAll(requests);
+        return requests;
+    }
+
+    private void admitConfirmedRequests(Event event, int count) {
+        if (eventRepository.addConfirmedRequestsWithinLimit(event.getId(), count) == 0) {
+            throw new ForbiddenException(String.format("Достигнут лимит подтвержденных запросов на участие: %d",
+                    event.getParticipantLimit()));
+        }
     }
 
     private void checkIsNewLimitGreaterOld(Long newLimit, Integer eventParticipantLimit) {
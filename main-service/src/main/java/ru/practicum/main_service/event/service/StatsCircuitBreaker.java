@@ -0,0 +1,117 @@
+package ru.practicum.main_service.event.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.main_service.exception.StatsUnavailableException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ограничивает обращения к сервису статистики по времени и размыкает цепь, когда он недоступен.
+ * Отказами считаются только таймауты, ошибки соединения и ответы 5xx: ошибки в аргументах запроса
+ * не говорят о состоянии сервиса и цепь не размыкают.
+ * Состояние публикуется метрикой resilience4j.circuitbreaker.state с тегом name=stats.
+ */
+@Slf4j
+@Component
+public class StatsCircuitBreaker {
+    private static final String NAME = "stats";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter timeLimiter;
+    private final ThreadPoolExecutor executor;
+
+    public StatsCircuitBreaker(ObjectProvider<MeterRegistry> meterRegistry,
+                               @Value("${app.stats-breaker.timeout-ms:2000}") long timeoutMs,
+                               @Value("${app.stats-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                               @Value("${app.stats-breaker.sliding-window-size:20}") int slidingWindowSize,
+                               @Value("${app.stats-breaker.minimum-calls:10}") int minimumCalls,
+                               @Value("${app.stats-breaker.wait-in-open-ms:10000}") long waitInOpenMs,
+                               @Value("${app.stats-breaker.half-open-calls:3}") int halfOpenCalls,
+                               @Value("${app.stats-breaker.threads:8}") int threads) {
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(timeoutMs))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(waitInOpenMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordExceptions(TimeoutException.class, IOException.class, ResourceAccessException.class,
+                        HttpServerErrorException.class)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.timeLimiter = TimeLimiter.of(NAME, TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(timeoutMs))
+                .cancelRunningFuture(true)
+                .build());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "stats-call-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Состояние обращений к сервису статистики: {}", event.getStateTransition()));
+    }
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.ifAvailable(registry ->
+                TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public <T> T call(Supplier<T> supplier) {
+        try {
+            return circuitBreaker.executeCallable(() -> {
+                try {
+                    return timeLimiter.executeFutureSupplier(() -> CompletableFuture.supplyAsync(supplier, executor));
+                } catch (ExecutionException exception) {
+                    throw exception.getCause() instanceof Exception ? (Exception) exception.getCause() : exception;
+                }
+            });
+        } catch (CallNotPermittedException exception) {
+            throw new StatsUnavailableException("Обращения к сервису статистики временно приостановлены", exception);
+        } catch (Exception exception) {
+            throw new StatsUnavailableException("Сервис статистики не ответил: " + exception, exception);
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+}
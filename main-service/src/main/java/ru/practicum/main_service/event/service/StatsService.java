@@ -1,47 +1,113 @@
 package ru.practicum.main_service.event.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.main_service.Utils;
-import ru.practicum.main_service.event.domain.model.Event;
-import ru.practicum.main_service.event.domain.repository.RequestRepository;
+import ru.practicum.main_service.event.domain.model.ViewableEvent;
+import ru.practicum.main_service.exception.StatsUnavailableException;
 import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.statsclient.HitReporter;
 import ru.practicum.statsclient.StatsClient;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StatsService {
+    private static final String EVENT_URI_PREFIX = "/events/";
+
     private final StatsClient statsClient;
-    private final RequestRepository requestRepository;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final StatsCircuitBreaker statsCircuitBreaker;
+    private final HitReporter hitReporter;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
 
     @Value(value = "${app.name}")
     private String appName;
 
+    @Value("${app.views-cache.enabled:false}")
+    private boolean viewsCacheEnabled;
+
+    @Value("${app.views-cache.refresh-after-ms:5000}")
+    private long viewsRefreshAfterMs;
+
+    @Value("${app.views-cache.expire-after-ms:60000}")
+    private long viewsExpireAfterMs;
+
+    @Value("${app.views-cache.maximum-size:10000}")
+    private long viewsMaximumSize;
+
+    private LoadingCache<ViewsKey, Long> viewsCache;
+
+    @PostConstruct
+    public void initViewsCache() {
+        if (!viewsCacheEnabled) {
+            return;
+        }
+        viewsCache = Caffeine.newBuilder()
+                .refreshAfterWrite(Duration.ofMillis(viewsRefreshAfterMs))
+                .expireAfterWrite(Duration.ofMillis(viewsExpireAfterMs))
+                .maximumSize(viewsMaximumSize)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Long load(ViewsKey key) {
+                        return loadViews(Set.of(key)).getOrDefault(key, 0L);
+                    }
+
+                    @Override
+                    public Map<ViewsKey, Long> loadAll(Iterable<? extends ViewsKey> keys) {
+                        Set<ViewsKey> keySet = new HashSet<>();
+                        keys.forEach(keySet::add);
+                        return loadViews(keySet);
+                    }
+                });
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, viewsCache, "event-views"));
+    }
+
     public void saveHit(HttpServletRequest request) {
 
         log.info("Отправлен запрос на регистрацию обращения к серверу статистики с параметрами request = {}", request);
 
-        statsClient.saveHit(appName, request.getRequestURI(), request.getRemoteAddr(),
-                LocalDateTime.parse(LocalDateTime.now().format(Utils.DATE_FORMATTER), Utils.DATE_FORMATTER));
+        String uri = request.getRequestURI();
+        String ip = request.getRemoteAddr();
+        LocalDateTime timestamp = LocalDateTime.parse(LocalDateTime.now().format(Utils.DATE_FORMATTER),
+                Utils.DATE_FORMATTER);
+
+        if (hitReporter.isAsync()) {
+            hitReporter.report(appName, uri, ip, timestamp);
+            return;
+        }
+        try {
+            statsCircuitBreaker.call(() -> {
+                hitReporter.report(appName, uri, ip, timestamp);
+                return null;
+            });
+        } catch (StatsUnavailableException exception) {
+            log.warn("Статистика недоступна, обращение к {} не зарегистрировано: {}", uri, exception.getMessage());
+        }
     }
 
     public List<ViewStats> getAllStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
@@ -49,71 +115,97 @@ public class StatsService {
         log.info("Запрос к серверу статистики с параметрами " +
                 "start = {}, end = {}, uris = {}, unique = {}", start, end, uris, unique);
 
-        ResponseEntity<Object> response = statsClient.getAllStats(start, end, uris, unique);
-
         try {
-            return Arrays.asList(mapper.readValue(mapper.writeValueAsString(response.getBody()), ViewStats[].class));
-        } catch (JsonProcessingException exception) {
-            throw new RuntimeException(exception.getMessage());
+            return statsCircuitBreaker.call(() -> statsClient.getViewStats(start, end, uris, unique));
+        } catch (StatsUnavailableException exception) {
+            log.warn("Статистика недоступна, возвращается пустой список: {}", exception.getMessage());
+            return List.of();
         }
     }
 
-    public Map<Long, Long> getViews(List<Event> events) {
+    public Map<Long, Long> getViews(List<? extends ViewableEvent> events) {
 
         log.info("Запрос статистики неуникальных посещений " +
                 "для списка событий.");
 
         Map<Long, Long> views = new HashMap<>();
 
-        List<Event> publishedEvents = getPublished(events);
+        List<ViewableEvent> publishedEvents = getPublished(events);
 
-        if (events.isEmpty()) {
+        if (publishedEvents.isEmpty()) {
             return views;
         }
 
-        Optional<LocalDateTime> minPublishedOn = publishedEvents.stream()
-                .map(Event::getPublishedOn)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo);
+        Set<ViewsKey> keys = publishedEvents.stream()
+                .map(event -> new ViewsKey(event.getId(), event.getPublishedOn()))
+                .collect(Collectors.toSet());
 
-        if (minPublishedOn.isPresent()) {
-            LocalDateTime start = minPublishedOn.get();
-            LocalDateTime end = LocalDateTime.now();
-            List<String> uris = publishedEvents.stream()
-                    .map(Event::getId)
-                    .map(id -> ("/events/" + id))
-                    .collect(Collectors.toList());
-
-            List<ViewStats> stats = getAllStats(start, end, uris, true);
-            stats.forEach(stat -> {
-                Long eventId = Long.parseLong(stat.getUri()
-                        .split("/", 0)[2]);
-                views.merge(eventId, stat.getHits(), Long::sum);
-            });
+        Map<ViewsKey, Long> loaded;
+        try {
+            loaded = viewsCache == null ? loadViews(keys) : viewsCache.getAll(keys);
+        } catch (StatsUnavailableException exception) {
+            log.warn("Статистика недоступна, просмотры берутся из кэша или считаются нулевыми: {}",
+                    exception.getMessage());
+            loaded = fallbackViews(keys);
         }
+        loaded.forEach((key, hits) -> views.merge(key.getEventId(), hits, Long::sum));
 
         return views;
     }
 
-    @Transactional(readOnly = true)
-    public Map<Long, Long> getConfirmedRequests(List<Event> events) {
-        List<Long> eventsId = getPublished(events).stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-
+    public Map<Long, Long> getConfirmedRequests(List<? extends ViewableEvent> events) {
         Map<Long, Long> requestStats = new HashMap<>();
 
-        if (!eventsId.isEmpty()) {
-            requestRepository.getConfirmedRequests(eventsId)
-                    .forEach(stat -> requestStats.put(stat.getEventId(), stat.getConfirmedRequests()));
-        }
+        getPublished(events).forEach(event -> requestStats.put(event.getId(), event.getConfirmedRequests()));
 
         return requestStats;
     }
 
-    private List<Event> getPublished(List<Event> events) {
+    private List<ViewableEvent> getPublished(List<? extends ViewableEvent> events) {
         return events.stream()
                 .filter(event -> event.getPublishedOn() != null)
                 .collect(Collectors.toList());
     }
+
+    private Map<ViewsKey, Long> loadViews(Set<ViewsKey> keys) {
+        Map<ViewsKey, Long> views = new HashMap<>();
+        keys.forEach(key -> views.put(key, 0L));
+
+        Optional<LocalDateTime> minPublishedOn = keys.stream()
+                .map(ViewsKey::getPublishedOn)
+                .min(LocalDateTime::compareTo);
+
+        if (minPublishedOn.isPresent()) {
+            Map<Long, ViewsKey> keysById = keys.stream()
+                    .collect(Collectors.toMap(ViewsKey::getEventId, key -> key, (first, second) -> first));
+
+            Map<Long, Long> hits = statsCircuitBreaker.call(() -> statsClient.getHitsByIds(minPublishedOn.get(),
+                    LocalDateTime.now(), EVENT_URI_PREFIX, new ArrayList<>(keysById.keySet()), true));
+            hits.forEach((eventId, count) -> {
+                ViewsKey key = keysById.get(eventId);
+                if (key != null) {
+                    views.merge(key, count, Long::sum);
+                }
+            });
+        }
+
+        return views;
+    }
+
+    private Map<ViewsKey, Long> fallbackViews(Set<ViewsKey> keys) {
+        Map<ViewsKey, Long> views = new HashMap<>();
+        keys.forEach(key -> views.put(key, 0L));
+        if (viewsCache != null) {
+            views.putAll(viewsCache.getAllPresent(keys));
+        }
+        return views;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class ViewsKey {
+        private final Long eventId;
+        private final LocalDateTime publishedOn;
+    }
 }
@@ -0,0 +1,8 @@
+package ru.practicum.main_service.exception;
+
+public class StatsUnavailableException extends RuntimeException {
+
+    public StatsUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.exception.NotFoundException;
 import ru.practicum.main_service.user.domain.model.User;
 import ru.practicum.main_service.user.domain.repository.UserRepository;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final CompilationCache compilationCache;
 
     @Transactional
     public UserDto create(NewUserRequest newUserRequest) {
@@ -52,6 +54,7 @@ public class UserService {
                 .orElseThrow(() -> new NotFoundException("Пользователя с таким id не существует."));
 
         userRepository.deleteById(id);
+        compilationCache.evictAll();
     }
 
     public User getUserById(Long id) {
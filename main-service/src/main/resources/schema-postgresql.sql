@@ -0,0 +1,5 @@
+-- Выполняется после schema.sql (см. spring.sql.init.schema-locations): индекс строится по уже созданной таблице events.
+CREATE INDEX IF NOT EXISTS ix_events_text_search ON events USING GIN (
+    (setweight(to_tsvector('russian', coalesce(annotation, '')), 'A') ||
+     setweight(to_tsvector('russian', coalesce(description, '')), 'B'))
+);
@@ -15,7 +15,8 @@ CREATE TABLE IF NOT EXISTS locations
 (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     lat REAL NOT NULL,
-    lon REAL NOT NULL
+    lon REAL NOT NULL,
+    cell BIGINT
 );
 
 CREATE TABLE IF NOT EXISTS events
@@ -34,6 +35,8 @@ CREATE TABLE IF NOT EXISTS events
     category_id BIGINT REFERENCES categories (id),
     user_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     location_id BIGINT REFERENCES locations (id),
+    confirmed_requests BIGINT NOT NULL DEFAULT 0,
+    views BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_events_to_users FOREIGN KEY (user_id) REFERENCES users (id)
 );
 
@@ -46,6 +49,41 @@ CREATE TABLE IF NOT EXISTS requests
     requester_id BIGINT REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS schema_migrations
+(
+    name VARCHAR(255) PRIMARY KEY
+);
+
+-- Разовые шаги для баз, созданных ранее: schema.sql выполняется при каждом запуске,
+-- поэтому шаг отмечается в schema_migrations и повторно не выполняется.
+-- Из повторных заявок пользователя на событие остается подтвержденная, иначе самая ранняя.
+DELETE FROM requests AS r
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'requests_event_requester_dedup')
+  AND EXISTS (SELECT 1
+              FROM requests AS d
+              WHERE d.event_id = r.event_id
+                AND d.requester_id = r.requester_id
+                AND (d.status = 'CONFIRMED' AND r.status <> 'CONFIRMED'
+                  OR (d.status = 'CONFIRMED') = (r.status = 'CONFIRMED') AND d.id < r.id));
+
+INSERT INTO schema_migrations (name)
+SELECT 'requests_event_requester_dedup'
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'requests_event_requester_dedup');
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_requests_event_requester ON requests (event_id, requester_id);
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS confirmed_requests BIGINT NOT NULL DEFAULT 0;
+
+UPDATE events
+SET confirmed_requests = (SELECT COUNT(*) FROM requests AS r WHERE r.event_id = events.id AND r.status = 'CONFIRMED')
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'events_confirmed_requests_backfill');
+
+INSERT INTO schema_migrations (name)
+SELECT 'events_confirmed_requests_backfill'
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'events_confirmed_requests_backfill');
+
+ALTER TABLE events ADD COLUMN IF NOT EXISTS views BIGINT NOT NULL DEFAULT 0;
+
 CREATE TABLE IF NOT EXISTS compilations
 (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -72,4 +110,49 @@ CREATE TABLE IF NOT EXISTS comments
     event_id BIGINT REFERENCES events (id) ON DELETE CASCADE,
     CONSTRAINT fk_comments_to_events FOREIGN KEY (event_id) REFERENCES events (id),
     CONSTRAINT fk_users_to_events FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS ix_events_state_event_date ON events (state, event_date);
+CREATE INDEX IF NOT EXISTS ix_events_state_views_id ON events (state, views, id);
+CREATE INDEX IF NOT EXISTS ix_events_user_id_id ON events (user_id, id);
+CREATE INDEX IF NOT EXISTS ix_events_category_id ON events (category_id);
+CREATE INDEX IF NOT EXISTS ix_requests_event_id_status ON requests (event_id, status);
+CREATE INDEX IF NOT EXISTS ix_requests_requester_id ON requests (requester_id);
+CREATE INDEX IF NOT EXISTS ix_comments_event_id ON comments (event_id);
+CREATE INDEX IF NOT EXISTS ix_comments_author_id_event_id ON comments (author_id, event_id);
+CREATE INDEX IF NOT EXISTS ix_compilations_events_compilation_id ON compilations_events (compilation_id);
+
+ALTER TABLE locations ADD COLUMN IF NOT EXISTS cell BIGINT;
+
+UPDATE locations
+SET cell = LEAST(CAST(FLOOR((lat + 90) / 0.1) AS BIGINT), 1799) * 3600
+    + MOD(CAST(FLOOR((lon + 180) / 0.1) AS BIGINT), 3600)
+WHERE cell IS NULL
+  AND NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'locations_cell_backfill');
+
+INSERT INTO schema_migrations (name)
+SELECT 'locations_cell_backfill'
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'locations_cell_backfill');
+
+CREATE INDEX IF NOT EXISTS ix_locations_cell ON locations (cell);
+
+UPDATE events
+SET location_id = (SELECT MIN(d.id)
+                   FROM locations AS l
+                            JOIN locations AS d ON d.lat = l.lat AND d.lon = l.lon
+                   WHERE l.id = events.location_id)
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'locations_dedup')
+  AND location_id IN (SELECT l.id
+                      FROM locations AS l
+                      WHERE EXISTS (SELECT 1 FROM locations AS d WHERE d.lat = l.lat AND d.lon = l.lon AND d.id < l.id));
+
+DELETE FROM locations AS l
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'locations_dedup')
+  AND EXISTS (SELECT 1 FROM locations AS d WHERE d.lat = l.lat AND d.lon = l.lon AND d.id < l.id);
+
+INSERT INTO schema_migrations (name)
+SELECT 'locations_dedup'
+WHERE NOT EXISTS (SELECT 1 FROM schema_migrations WHERE name = 'locations_dedup');
+
+DROP INDEX IF EXISTS ix_locations_lat_lon;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_locations_lat_lon ON locations (lat, lon);
@@ -0,0 +1,308 @@
+package ru.practicum.main_service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.function.SQLFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.util.StreamUtils;
+import ru.practicum.main_service.comment.domain.repository.CommentRepository;
+import ru.practicum.main_service.compilation.domain.repository.CompilationRepository;
+import ru.practicum.main_service.dialect.EwmPostgreSQLDialect;
+import ru.practicum.main_service.event.domain.repository.EventRepository;
+import ru.practicum.main_service.event.domain.repository.LocationRepository;
+import ru.practicum.main_service.event.domain.repository.RequestRepository;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventSortType;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.enums.RequestStatus;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Планы запросов репозиториев на заполненных таблицах: ни один из них не должен читать таблицу целиком.
+ * Проверяются запросы, которые на самом деле сформировал Hibernate: они перехватываются на уровне JDBC
+ * вместе с параметрами и выполняются повторно под EXPLAIN.
+ */
+@DataJpaTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class SchemaIndexTest {
+    private static final int USERS = 2000;
+    private static final int CATEGORIES = 50;
+    private static final int EVENTS = 20000;
+    private static final int REQUESTS = 40000;
+    private static final int COMMENTS = 10000;
+    private static final int COMPILATIONS = 200;
+
+    private static final List<RecordedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final EventRepository eventRepository;
+    private final RequestRepository requestRepository;
+    private final CommentRepository commentRepository;
+    private final LocationRepository locationRepository;
+    private final CompilationRepository compilationRepository;
+
+    @BeforeEach
+    public void seed() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM events", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (id, email, name) " +
+                "SELECT x, 'user' || x || '@yandex.ru', 'user ' || x FROM SYSTEM_RANGE(1, " + USERS + ")");
+        jdbcTemplate.update("INSERT INTO categories (id, name) " +
+                "SELECT x, 'category ' || x FROM SYSTEM_RANGE(1, " + CATEGORIES + ")");
+        jdbcTemplate.update("INSERT INTO locations (id, lat, lon) " +
+                "SELECT x, MOD(x, 170) - 85, x / 170 * 0.1 - 179 FROM SYSTEM_RANGE(1, " + EVENTS + ")");
+        jdbcTemplate.update("UPDATE locations " +
+                "SET cell = CAST(FLOOR((lat + 90) / 0.1) AS BIGINT) * 3600 + CAST(FLOOR((lon + 180) / 0.1) AS BIGINT)");
+        jdbcTemplate.update("INSERT INTO events (id, annotation, created_on, description, event_date, paid, " +
+                "participant_limit, published_on, request_moderation, state, title, category_id, user_id, " +
+                "location_id, confirmed_requests, views) " +
+                "SELECT x, 'annotation ' || x, DATEADD(DAY, -400, CURRENT_TIMESTAMP), 'description ' || x, " +
+                "DATEADD(HOUR, x - " + EVENTS + ", CURRENT_TIMESTAMP), MOD(x, 2) = 0, MOD(x, 50), " +
+                "DATEADD(DAY, -399, CURRENT_TIMESTAMP), TRUE, " +
+                "CASE WHEN MOD(x, 10) = 0 THEN 'PENDING' WHEN MOD(x, 10) = 1 THEN 'CANCELED' ELSE 'PUBLISHED' END, " +
+                "'title ' || x, MOD(x, " + CATEGORIES + ") + 1, MOD(x, " + USERS + ") + 1, x, MOD(x, 20), MOD(x, 1000) " +
+                "FROM SYSTEM_RANGE(1, " + EVENTS + ")");
+        jdbcTemplate.update("INSERT INTO requests (id, created, status, event_id, requester_id) " +
+                "SELECT x, CURRENT_TIMESTAMP, CASE WHEN MOD(x, 3) = 0 THEN 'CONFIRMED' ELSE 'PENDING' END, " +
+                "MOD(x, " + EVENTS + ") + 1, MOD(x / " + EVENTS + " + x, " + USERS + ") + 1 " +
+                "FROM SYSTEM_RANGE(1, " + REQUESTS + ")");
+        jdbcTemplate.update("INSERT INTO comments (id, created_in, text, author_id, event_id) " +
+                "SELECT x, CURRENT_TIMESTAMP, 'comment ' || x, MOD(x, " + USERS + ") + 1, MOD(x, " + EVENTS + ") + 1 " +
+                "FROM SYSTEM_RANGE(1, " + COMMENTS + ")");
+        jdbcTemplate.update("INSERT INTO compilations (id, pinned, title) " +
+                "SELECT x, MOD(x, 2) = 0, 'compilation ' || x FROM SYSTEM_RANGE(1, " + COMPILATIONS + ")");
+        jdbcTemplate.update("INSERT INTO compilations_events (compilation_id, event_id) " +
+                "SELECT MOD(x, " + COMPILATIONS + ") + 1, x FROM SYSTEM_RANGE(1, " + EVENTS + ")");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    static Stream<Arguments> repositoryCalls() {
+        LocalDateTime now = LocalDateTime.now();
+        EventShortView afterEventDate = EventShortView.builder().id(19500L).eventDate(now.minusHours(500)).build();
+        EventShortView afterViews = EventShortView.builder().id(500L).views(500L).build();
+
+        return Stream.of(
+                call("EventRepository.findAllShortByInitiatorId",
+                        test -> test.eventRepository.findAllShortByInitiatorId(7L, PageRequest.of(0, 10))),
+                call("EventRepository.findAllShortByInitiatorIdAfter",
+                        test -> test.eventRepository.findAllShortByInitiatorIdAfter(7L, 4007L,
+                                PageRequest.of(0, 10))),
+                call("EventRepository.findAllShortByStateAfter",
+                        test -> test.eventRepository.findAllShortByStateAfter(EventState.PUBLISHED, 4000L,
+                                PageRequest.of(0, 10))),
+                call("EventRepository.findAllShortByIdIn",
+                        test -> test.eventRepository.findAllShortByIdIn(List.of(11L, 12L, 13L))),
+                call("EventRepository.findByIdAndInitiatorId",
+                        test -> test.eventRepository.findByIdAndInitiatorId(15L, 15L)),
+                call("EvenSpecification.findAllForAdmin по пользователям",
+                        test -> test.eventRepository.findAllForAdmin(List.of(3L, 4L), null, null, null, null,
+                                null, 0, 10)),
+                call("EvenSpecification.findAllForAdmin по пользователям и категориям",
+                        test -> test.eventRepository.findAllForAdmin(List.of(3L, 4L), null, List.of(3L, 4L), null,
+                                null, 100L, 0, 10)),
+                call("EvenSpecification.findAllForPublic по id",
+                        test -> test.eventRepository.findAllForPublic(null, null, null, null, null, false, null,
+                                null, null, null, EventShortView.builder().id(19500L).build(), 0, 10)),
+                call("EvenSpecification.findAllForPublic в диапазоне дат",
+                        test -> test.eventRepository.findAllForPublic(null, null, null, now.minusDays(1), now,
+                                false, null, null, null, null, null, 0, 10)),
+                call("EvenSpecification.findAllForPublic с сортировкой по дате",
+                        test -> test.eventRepository.findAllForPublic(null, null, null, null, null, true, null,
+                                null, null, EventSortType.EVENT_DATE, null, 0, 10)),
+                call("EvenSpecification.findAllForPublic после курсора по дате",
+                        test -> test.eventRepository.findAllForPublic(null, null, null, null, null, false, null,
+                                null, null, EventSortType.EVENT_DATE, afterEventDate, 0, 10)),
+                call("EvenSpecification.findAllForPublic с сортировкой по просмотрам",
+                        test -> test.eventRepository.findAllForPublic(null, List.of(5L), null, null, null, false,
+                                null, null, null, EventSortType.VIEWS, null, 0, 10)),
+                call("EvenSpecification.findAllForPublic после курсора по просмотрам",
+                        test -> test.eventRepository.findAllForPublic(null, null, true, null, null, false, null,
+                                null, null, EventSortType.VIEWS, afterViews, 0, 10)),
+                call("EvenSpecification.findAllForPublic с поиском по тексту",
+                        test -> test.eventRepository.findAllForPublic("annotation 19999", null, null, null, null,
+                                false, null, null, null, null, null, 0, 10)),
+                call("EvenSpecification.findAllForPublic рядом с точкой",
+                        test -> test.eventRepository.findAllForPublic(null, null, null, null, null, false, 0F,
+                                -178F, 10F, null, null, 0, 10)),
+                call("RequestRepository.findAllByRequesterId",
+                        test -> test.requestRepository.findAllByRequesterId(11L)),
+                call("RequestRepository.findByEventIdAndRequesterId",
+                        test -> test.requestRepository.findByEventIdAndRequesterId(11L, 12L)),
+                call("RequestRepository.findAllByEventId",
+                        test -> test.requestRepository.findAllByEventId(11L)),
+                call("RequestRepository.findParticipationRequests",
+                        test -> test.requestRepository.findParticipationRequests(11L, List.of(11L, 20011L))),
+                call("RequestRepository.findParticipationRequestsByStatus",
+                        test -> test.requestRepository.findParticipationRequestsByStatus(11L,
+                                RequestStatus.PENDING)),
+                call("CommentRepository.findAllByEventId",
+                        test -> test.commentRepository.findAllByEventId(21L, PageRequest.of(0, 10))),
+                call("CommentRepository.findAllByAuthorId",
+                        test -> test.commentRepository.findAllByAuthorId(21L, PageRequest.of(0, 10))),
+                call("CommentRepository.findAllByAuthorIdAndEventId",
+                        test -> test.commentRepository.findAllByAuthorIdAndEventId(21L, 21L)),
+                call("LocationRepository.upsert",
+                        test -> test.locationRepository.upsert(-84F, -179F)),
+                call("CompilationRepository.findCompilationEvents",
+                        test -> test.compilationRepository.findCompilationEvents(List.of(17L, 18L)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    public void queryDoesNotScanWholeTable(String name, RepositoryCall call) {
+        entityManager.clear();
+        STATEMENTS.clear();
+
+        call.invoke(this);
+
+        List<RecordedStatement> queries = STATEMENTS.stream()
+                .filter(statement -> statement.sql.trim().toLowerCase().startsWith("select"))
+                .collect(Collectors.toList());
+        assertFalse(queries.isEmpty(), name);
+        for (RecordedStatement query : queries) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql, String.class,
+                    query.parameters.toArray()));
+
+            assertFalse(plan.contains(".tableScan"), query.sql + "\n" + plan);
+        }
+    }
+
+    /**
+     * Полнотекстовый поиск идет по GIN-индексу только на PostgreSQL, где H2 не поможет: проверяется,
+     * что выражение, которое диалект подставляет в запрос, совпадает с выражением индекса.
+     */
+    @Test
+    public void textSearchMatchesGinIndexExpression() throws IOException {
+        SQLFunction textMatch = new EwmPostgreSQLDialect().getFunctions().get(EwmPostgreSQLDialect.TEXT_MATCH);
+        String rendered = textMatch.render(null, List.of("annotation", "description", "?"), null);
+        String index = StreamUtils.copyToString(new ClassPathResource("schema-postgresql.sql").getInputStream(),
+                StandardCharsets.UTF_8);
+
+        String vector = normalize(rendered.substring(0, rendered.indexOf(" @@ ")));
+        assertTrue(normalize(index).contains("USING GIN (" + vector + ")"), vector);
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").replace("( ", "(").replace(" )", ")");
+    }
+
+    private static Arguments call(String name, RepositoryCall call) {
+        return Arguments.of(name, call);
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void invoke(SchemaIndexTest test);
+    }
+
+    private static class RecordedStatement {
+        private final String sql;
+        private final List<Object> parameters;
+
+        RecordedStatement(String sql, Map<Integer, Object> parameters) {
+            this.sql = sql;
+            this.parameters = new ArrayList<>(parameters.values());
+        }
+    }
+
+    /**
+     * Оборачивает источник данных так, что каждый выполненный PreparedStatement запоминается
+     * вместе со связанными параметрами.
+     */
+    @TestConfiguration
+    static class StatementRecorderConfig {
+        @Bean
+        static BeanPostProcessor statementRecorder() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? proxy(DataSource.class, bean, (target, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection ? connection((Connection) result) : result;
+                    }) : bean;
+                }
+            };
+        }
+
+        private static Connection connection(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof PreparedStatement && args != null && args[0] instanceof String) {
+                    return statement((PreparedStatement) result, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement statement(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute")) {
+                    STATEMENTS.add(new RecordedStatement(sql, parameters));
+                }
+                return invoke(target, method, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Object target, TargetHandler handler) {
+            InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException exception) {
+                throw exception.getCause();
+            }
+        }
+
+        @FunctionalInterface
+        private interface TargetHandler {
+            Object handle(Object target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
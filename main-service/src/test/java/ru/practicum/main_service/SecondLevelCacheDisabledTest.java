@@ -0,0 +1,26 @@
+package ru.practicum.main_service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest
+@TestPropertySource(properties = "app.second-level-cache.enabled=false")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SecondLevelCacheDisabledTest {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void secondLevelCacheIsOffWithoutConfig() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        assertFalse(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.main_service;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.main_service.category.domain.model.Category;
+import ru.practicum.main_service.category.domain.repository.CategoryRepository;
+import ru.practicum.main_service.event.domain.model.Location;
+import ru.practicum.main_service.event.domain.repository.LocationRepository;
+import ru.practicum.main_service.user.domain.model.User;
+import ru.practicum.main_service.user.domain.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Каждый вызов репозитория выполняется в своей транзакции: записи попадают в кэш второго уровня только после коммита.
+ * Сущности с IDENTITY-ключом Hibernate не кладет в кэш при вставке, регион заполняется первым чтением или обновлением.
+ */
+@DataJpaTest
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class SecondLevelCacheTest {
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    public void findByIdIsServedFromCache() {
+        User user = userRepository.save(User.builder().name("cached user").email("cached@yandex.ru").build());
+        Location location = locationRepository.save(Location.builder().lat(55.75F).lon(37.62F).build());
+        userRepository.findById(user.getId());
+        locationRepository.findById(location.getId());
+        statistics.clear();
+
+        assertEquals(user.getName(), userRepository.findById(user.getId()).orElseThrow().getName());
+        assertEquals(location.getLat(), locationRepository.findById(location.getId()).orElseThrow().getLat());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("locations").getHitCount());
+    }
+
+    @Test
+    public void updateReplacesCachedEntry() {
+        Category category = categoryRepository.save(Category.builder().name("cached category").build());
+        category.setName("renamed category");
+        categoryRepository.save(category);
+        statistics.clear();
+
+        assertEquals("renamed category", categoryRepository.findById(category.getId()).orElseThrow().getName());
+
+        assertEquals(1, statistics.getDomainDataRegionStatistics("categories").getHitCount());
+    }
+
+    @Test
+    public void deleteEvictsCachedEntry() {
+        User user = userRepository.save(User.builder().name("deleted user").email("deleted@yandex.ru").build());
+        userRepository.findById(user.getId());
+
+        userRepository.deleteById(user.getId());
+
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+}
@@ -7,6 +7,7 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main_service.category.controller.CategoryPublicController;
@@ -22,6 +23,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CategoryPublicController.class)
@@ -131,4 +133,47 @@ public class CategoryPublicControllerTest {
 
         verify(categoryService, times(1)).getById(ArgumentMatchers.any());
     }
+
+    @Test
+    public void getAllReturnsEtagAndCacheControl() throws Exception {
+        when(categoryService.getAll(ArgumentMatchers.any())).thenReturn(List.of(categoryDto1, categoryDto2));
+
+        mvc.perform(get("/categories")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, public"));
+    }
+
+    @Test
+    public void getAllWhenEtagMatches() throws Exception {
+        when(categoryService.getAll(ArgumentMatchers.any())).thenReturn(List.of(categoryDto1, categoryDto2));
+
+        String etag = mvc.perform(get("/categories")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/categories")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getAllWhenEtagIsStale() throws Exception {
+        when(categoryService.getAll(ArgumentMatchers.any())).thenReturn(List.of(categoryDto1, categoryDto2));
+
+        mvc.perform(get("/categories")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0123456789abcdef\""))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(categoryDto1, categoryDto2))));
+    }
 }
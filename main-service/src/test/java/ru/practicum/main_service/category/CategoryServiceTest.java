@@ -8,7 +8,6 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.main_service.category.domain.model.Category;
@@ -16,6 +15,8 @@ import ru.practicum.main_service.category.domain.repository.CategoryRepository;
 import ru.practicum.main_service.category.dto.CategoryDto;
 import ru.practicum.main_service.category.dto.NewCategoryDto;
 import ru.practicum.main_service.category.service.CategoryService;
+import ru.practicum.main_service.category.service.CategorySnapshot;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.exception.NotFoundException;
 
 import java.util.List;
@@ -40,6 +41,12 @@ public class CategoryServiceTest {
     @Mock
     private CategoryMapperImpl categoryMapper;
 
+    @Mock
+    private CompilationCache compilationCache;
+
+    @Mock
+    private CategorySnapshot categorySnapshot;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -84,6 +91,7 @@ public class CategoryServiceTest {
         verify(categoryMapper, times(1)).newCategoryDtoToCategory(any());
         verify(categoryMapper, times(1)).toCategoryDto(any());
         verify(categoryRepository, times(1)).save(categoryArgumentCaptor.capture());
+        verify(categorySnapshot, times(1)).invalidate();
 
         Category savedCategory = categoryArgumentCaptor.getValue();
 
@@ -94,7 +102,7 @@ public class CategoryServiceTest {
     @Test
     public void getAll() {
         when(categoryMapper.toCategoryDto(any())).thenCallRealMethod();
-        when(categoryRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(category1, category2)));
+        when(categorySnapshot.getAll(pageable)).thenReturn(List.of(category1, category2));
 
         List<CategoryDto> categoriesDtoFromService = categoryService.getAll(pageable);
 
@@ -105,13 +113,13 @@ public class CategoryServiceTest {
         assertEquals(category2.getName(), categoriesDtoFromService.get(1).getName());
 
         verify(categoryMapper, times(2)).toCategoryDto(any());
-        verify(categoryRepository, times(1)).findAll(pageable);
+        verify(categorySnapshot, times(1)).getAll(pageable);
     }
 
     @Test
     public void getAllWhenCategoryOne() {
         when(categoryMapper.toCategoryDto(any())).thenCallRealMethod();
-        when(categoryRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(category2)));
+        when(categorySnapshot.getAll(pageable)).thenReturn(List.of(category2));
 
         List<CategoryDto> categoriesDtoFromService = categoryService.getAll(pageable);
 
@@ -120,24 +128,24 @@ public class CategoryServiceTest {
         assertEquals(category2.getName(), categoriesDtoFromService.get(0).getName());
 
         verify(categoryMapper, times(1)).toCategoryDto(any());
-        verify(categoryRepository, times(1)).findAll(pageable);
+        verify(categorySnapshot, times(1)).getAll(pageable);
     }
 
     @Test
     public void getAllWhenCategoryEmpty() {
-        when(categoryRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of()));
+        when(categorySnapshot.getAll(pageable)).thenReturn(List.of());
 
         List<CategoryDto> categoriesDtoFromService = categoryService.getAll(pageable);
 
         assertTrue(categoriesDtoFromService.isEmpty());
 
-        verify(categoryRepository, times(1)).findAll(pageable);
+        verify(categorySnapshot, times(1)).getAll(pageable);
     }
 
     @Test
     public void getById() {
         when(categoryMapper.toCategoryDto(any())).thenCallRealMethod();
-        when(categoryRepository.findById(any())).thenReturn(Optional.of(category1));
+        when(categorySnapshot.findById(any())).thenReturn(Optional.of(category1));
 
         CategoryDto categoryDto = categoryService.getById(category1.getId());
 
@@ -145,18 +153,19 @@ public class CategoryServiceTest {
         assertEquals(category1.getName(), categoryDto.getName());
 
         verify(categoryMapper, times(1)).toCategoryDto(any());
-        verify(categoryRepository, times(1)).findById(any());
+        verify(categorySnapshot, times(1)).findById(any());
+        verify(categoryRepository, never()).findById(any());
     }
 
     @Test
     public void getByIdWhenIdNotFound() {
-        when(categoryRepository.findById(99L)).thenReturn(Optional.empty());
+        when(categorySnapshot.findById(99L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> categoryService.getById(99L));
         assertEquals("Категория с таким id не найдена.", exception.getMessage());
 
-        verify(categoryRepository, times(1)).findById(any());
+        verify(categorySnapshot, times(1)).findById(any());
     }
 
     @Test
@@ -179,6 +188,7 @@ public class CategoryServiceTest {
         verify(categoryMapper, times(1)).categoryDtoToCategory(any());
         verify(categoryRepository, times(1)).findById(any());
         verify(categoryRepository, times(1)).save(categoryArgumentCaptor.capture());
+        verify(categorySnapshot, times(1)).invalidate();
 
         Category savedCategory = categoryArgumentCaptor.getValue();
 
@@ -196,6 +206,7 @@ public class CategoryServiceTest {
 
         verify(categoryRepository, times(1)).findById(any());
         verify(categoryRepository, never()).save(any());
+        verify(categorySnapshot, never()).invalidate();
     }
 
 }
@@ -0,0 +1,119 @@
+package ru.practicum.main_service.category;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.main_service.category.domain.model.Category;
+import ru.practicum.main_service.category.domain.repository.CategoryRepository;
+import ru.practicum.main_service.category.service.CategorySnapshot;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CategorySnapshotTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategorySnapshot categorySnapshot;
+
+    private final Category category1 = Category.builder()
+            .id(1L)
+            .name("category 1")
+            .build();
+    private final Category category2 = Category.builder()
+            .id(2L)
+            .name("category 2")
+            .build();
+    private final Category category3 = Category.builder()
+            .id(3L)
+            .name("category 3")
+            .build();
+
+    @BeforeEach
+    public void beforeEach() {
+        categorySnapshot = new CategorySnapshot(categoryRepository, 60000);
+    }
+
+    @Test
+    public void readsAreServedFromOneLoad() {
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of(category1, category2, category3));
+
+        categorySnapshot.load();
+
+        assertEquals(List.of(3L), ids(categorySnapshot.getAll(PageRequest.of(1, 2)).stream()));
+        assertEquals(List.of(1L, 2L, 3L), ids(categorySnapshot.getAll(PageRequest.of(0, 10)).stream()));
+        assertTrue(categorySnapshot.getAll(PageRequest.of(5, 10)).isEmpty());
+        assertEquals(category2.getName(), categorySnapshot.findById(2L).orElseThrow().getName());
+        assertTrue(categorySnapshot.findById(99L).isEmpty());
+
+        verify(categoryRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    public void changedCopyDoesNotLeakIntoSnapshot() {
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of(category1));
+
+        categorySnapshot.findById(1L).orElseThrow().setName("changed");
+        category1.setName("changed in persistence context");
+
+        assertEquals("category 1", categorySnapshot.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    public void invalidateReloadsOnNextRead() {
+        when(categoryRepository.findAll(any(Sort.class)))
+                .thenReturn(List.of(category1))
+                .thenReturn(List.of(category1, category2));
+
+        assertTrue(categorySnapshot.findById(2L).isEmpty());
+
+        categorySnapshot.invalidate();
+
+        assertEquals(category2.getName(), categorySnapshot.findById(2L).orElseThrow().getName());
+
+        verify(categoryRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    public void loadOverlappingInvalidateIsNotKept() {
+        when(categoryRepository.findAll(any(Sort.class)))
+                .thenAnswer(invocation -> {
+                    categorySnapshot.invalidate();
+                    return List.of(category1);
+                })
+                .thenReturn(List.of(category1, category2));
+
+        assertTrue(categorySnapshot.findById(2L).isEmpty());
+        assertEquals(category2.getName(), categorySnapshot.findById(2L).orElseThrow().getName());
+
+        verify(categoryRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    public void expiredSnapshotIsReloaded() {
+        categorySnapshot = new CategorySnapshot(categoryRepository, -1);
+        when(categoryRepository.findAll(any(Sort.class))).thenReturn(List.of(category1));
+
+        categorySnapshot.findById(1L);
+        categorySnapshot.findById(1L);
+
+        verify(categoryRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    private static List<Long> ids(Stream<Category> categories) {
+        return categories.map(Category::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.main_service.compilation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.main_service.compilation.dto.CompilationDto;
+import ru.practicum.main_service.compilation.service.CompilationCache;
+import ru.practicum.main_service.event.dto.EventShortDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CompilationCacheTest {
+    private CompilationCache compilationCache;
+
+    private final EventShortDto eventShortDto = EventShortDto.builder()
+            .id(1L)
+            .title("event 1")
+            .build();
+    private final CompilationDto staleCompilationDto = CompilationDto.builder()
+            .id(1L)
+            .title("title 1")
+            .pinned(false)
+            .events(List.of(eventShortDto))
+            .build();
+    private final CompilationDto updatedCompilationDto = CompilationDto.builder()
+            .id(1L)
+            .title("updated title 1")
+            .pinned(false)
+            .events(List.of(eventShortDto))
+            .build();
+
+    @BeforeEach
+    public void beforeEach() {
+        compilationCache = new CompilationCache(true, 60000, 100,
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    public void loadsAreCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        compilationCache.getCompilation(1L, () -> {
+            loads.incrementAndGet();
+            return staleCompilationDto;
+        });
+        CompilationDto cached = compilationCache.getCompilation(1L, () -> {
+            loads.incrementAndGet();
+            return updatedCompilationDto;
+        });
+
+        assertSame(staleCompilationDto, cached);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void compilationLoadOverlappingEvictAllIsNotKept() {
+        CompilationDto loaded = compilationCache.getCompilation(1L, () -> {
+            compilationCache.evictAll();
+            return staleCompilationDto;
+        });
+
+        assertSame(staleCompilationDto, loaded);
+        assertSame(updatedCompilationDto, compilationCache.getCompilation(1L, () -> updatedCompilationDto));
+    }
+
+    @Test
+    public void pageLoadOverlappingEvictEventIsNotKept() {
+        List<CompilationDto> loaded = compilationCache.getPage(false, PageRequest.of(0, 10), () -> {
+            compilationCache.evictEvent(eventShortDto.getId());
+            return List.of(staleCompilationDto);
+        });
+
+        assertSame(staleCompilationDto, loaded.get(0));
+        assertSame(updatedCompilationDto, compilationCache.getPage(false, PageRequest.of(0, 10),
+                () -> List.of(updatedCompilationDto)).get(0));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.main_service.compilation;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,17 +9,20 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.main_service.category.domain.model.Category;
 import ru.practicum.main_service.compilation.domain.model.Compilation;
 import ru.practicum.main_service.compilation.domain.repository.CompilationRepository;
 import ru.practicum.main_service.compilation.dto.CompilationDto;
+import ru.practicum.main_service.compilation.dto.CompilationEvent;
 import ru.practicum.main_service.compilation.dto.NewCompilationDto;
 import ru.practicum.main_service.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.main_service.compilation.mapper.CompilationMapperImpl;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.compilation.service.CompilationService;
 import ru.practicum.main_service.event.domain.model.Event;
 import ru.practicum.main_service.event.domain.repository.EventRepository;
@@ -29,9 +33,12 @@ import ru.practicum.main_service.user.domain.model.User;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
@@ -53,6 +60,10 @@ public class CompilationServiceTest {
     @Mock
     private CompilationMapperImpl compilationMapper;
 
+    @Spy
+    private CompilationCache compilationCache = new CompilationCache(true, 60000, 100,
+            new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
     @InjectMocks
     private CompilationService compilationService;
 
@@ -152,7 +163,10 @@ public class CompilationServiceTest {
         when(compilationMapper.newDtoToCompilation(any(), any())).thenCallRealMethod();
         when(compilationRepository.save(any())).thenReturn(compilation1);
         when(compilationRepository.findById(any())).thenReturn(Optional.of(compilation1));
-        when(eventService.toEventsShortDto(List.of(event1, event2))).thenReturn(List.of(eventShortDto1, eventShortDto2));
+        when(compilationRepository.findCompilationEvents(List.of(compilation1.getId())))
+                .thenReturn(compilationEvents(compilation1));
+        when(eventService.getEventsShortDtoByIds(Set.of(event1.getId(), event2.getId())))
+                .thenReturn(List.of(eventShortDto1, eventShortDto2));
         when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
 
         CompilationDto savedCompilationDto = compilationService.addCompilation(newCompilationDto1);
@@ -166,8 +180,10 @@ public class CompilationServiceTest {
         verify(compilationMapper, times(1)).newDtoToCompilation(any(), any());
         verify(compilationRepository, times(1)).save(compilationArgumentCaptor.capture());
         verify(compilationRepository, times(1)).findById(any());
-        verify(eventService, times(1)).toEventsShortDto(any());
+        verify(compilationRepository, times(1)).findCompilationEvents(any());
+        verify(eventService, times(1)).getEventsShortDtoByIds(any());
         verify(compilationMapper, times(1)).toCompilationDto(any(), any());
+        verify(compilationCache, times(1)).evictAll();
 
         Compilation savedCompilation = compilationArgumentCaptor.getValue();
 
@@ -182,7 +198,6 @@ public class CompilationServiceTest {
         when(compilationMapper.newDtoToCompilation(any(), any())).thenCallRealMethod();
         when(compilationRepository.save(any())).thenReturn(compilation2);
         when(compilationRepository.findById(any())).thenReturn(Optional.of(compilation2));
-        when(eventService.toEventsShortDto(List.of())).thenReturn(List.of());
         when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
 
         CompilationDto savedCompilationDto = compilationService.addCompilation(newCompilationDto2);
@@ -195,7 +210,7 @@ public class CompilationServiceTest {
         verify(compilationMapper, times(1)).newDtoToCompilation(any(), any());
         verify(compilationRepository, times(1)).save(compilationArgumentCaptor.capture());
         verify(compilationRepository, times(1)).findById(any());
-        verify(eventService, times(1)).toEventsShortDto(any());
+        verify(compilationRepository, times(1)).findCompilationEvents(any());
         verify(compilationMapper, times(1)).toCompilationDto(any(), any());
 
         Compilation savedCompilation = compilationArgumentCaptor.getValue();
@@ -225,7 +240,9 @@ public class CompilationServiceTest {
             when(compilationRepository.findById(any())).thenReturn(Optional.of(compilation1));
             when(eventRepository.findAllByIdIn(any())).thenReturn(List.of(event1));
             when(compilationRepository.save(any())).thenReturn(updatedCompilation1);
-            when(eventService.toEventsShortDto(List.of(event1))).thenReturn(List.of(eventShortDto1));
+            when(compilationRepository.findCompilationEvents(List.of(compilation1.getId())))
+                    .thenReturn(compilationEvents(updatedCompilation1));
+            when(eventService.getEventsShortDtoByIds(Set.of(event1.getId()))).thenReturn(List.of(eventShortDto1));
             when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
 
             CompilationDto savedCompilationDto = compilationService.update(compilation1.getId(), updateCompilationRequest1);
@@ -238,8 +255,9 @@ public class CompilationServiceTest {
             verify(compilationRepository, times(2)).findById(any());
             verify(eventRepository, times(1)).findAllByIdIn(any());
             verify(compilationRepository, times(1)).save(compilationArgumentCaptor.capture());
-            verify(eventService, times(1)).toEventsShortDto(any());
+            verify(eventService, times(1)).getEventsShortDtoByIds(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
+            verify(compilationCache, times(1)).evictAll();
 
             Compilation savedCompilation = compilationArgumentCaptor.getValue();
 
@@ -282,6 +300,7 @@ public class CompilationServiceTest {
 
         verify(compilationRepository, times(1)).findById(any());
         verify(compilationRepository, times(1)).deleteById(any());
+        verify(compilationCache, times(1)).evictAll();
     }
 
     @Test
@@ -300,8 +319,10 @@ public class CompilationServiceTest {
     class Get {
         @Test
         public void getAllWhenPinnedIsNull() {
-            when(compilationRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(compilation1, compilation2)));
-            when(eventService.toEventsShortDto(any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(compilationRepository.findAllBy(pageable)).thenReturn(List.of(compilation1, compilation2));
+            when(compilationRepository.findCompilationEvents(List.of(compilation1.getId(), compilation2.getId())))
+                    .thenReturn(compilationEvents(compilation1));
+            when(eventService.getEventsShortDtoByIds(any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation1), ArgumentMatchers.any()))
                     .thenCallRealMethod();
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation2), ArgumentMatchers.any()))
@@ -309,8 +330,9 @@ public class CompilationServiceTest {
 
             List<CompilationDto> savedCompilationsDto = compilationService.getAll(null, pageable);
 
-            verify(compilationRepository, times(1)).findAll(pageable);
-            verify(eventService, times(1)).toEventsShortDto(any());
+            verify(compilationRepository, times(1)).findAllBy(pageable);
+            verify(compilationRepository, times(1)).findCompilationEvents(any());
+            verify(eventService, times(1)).getEventsShortDtoByIds(any());
             verify(compilationMapper, times(2)).toCompilationDto(any(), any());
 
             assertEquals(2, savedCompilationsDto.size());
@@ -331,14 +353,15 @@ public class CompilationServiceTest {
         @Test
         public void getAllWhenPinnedIsNotNull() {
             when(compilationRepository.findAllByPinned(compilation2.getPinned(), pageable)).thenReturn(List.of(compilation2));
-            when(eventService.toEventsShortDto(any())).thenReturn(List.of());
+            when(compilationRepository.findCompilationEvents(List.of(compilation2.getId()))).thenReturn(List.of());
+            when(eventService.getEventsShortDtoByIds(any())).thenReturn(List.of());
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation2), ArgumentMatchers.any()))
                     .thenCallRealMethod();
 
             List<CompilationDto> savedCompilationsDto = compilationService.getAll(compilation2.getPinned(), pageable);
 
             verify(compilationRepository, times(1)).findAllByPinned(any(), any());
-            verify(eventService, times(1)).toEventsShortDto(any());
+            verify(eventService, times(1)).getEventsShortDtoByIds(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
 
             assertEquals(1, savedCompilationsDto.size());
@@ -354,7 +377,9 @@ public class CompilationServiceTest {
         @Test
         public void getById() {
             when(compilationRepository.findById(compilation1.getId())).thenReturn(Optional.of(compilation1));
-            when(eventService.toEventsShortDto(compilation1.getEvents())).thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(compilationRepository.findCompilationEvents(List.of(compilation1.getId())))
+                    .thenReturn(compilationEvents(compilation1));
+            when(eventService.getEventsShortDtoByIds(any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
             when(compilationMapper.toCompilationDto(ArgumentMatchers.eq(compilation1), ArgumentMatchers.any()))
                     .thenCallRealMethod();
 
@@ -366,7 +391,7 @@ public class CompilationServiceTest {
             assertEquals(compilationDto1.getEvents().size(), savedCompilationsDto.getEvents().size());
 
             verify(compilationRepository, times(1)).findById(compilation1.getId());
-            verify(eventService, times(1)).toEventsShortDto(any());
+            verify(eventService, times(1)).getEventsShortDtoByIds(any());
             verify(compilationMapper, times(1)).toCompilationDto(any(), any());
         }
 
@@ -382,4 +407,60 @@ public class CompilationServiceTest {
         }
     }
 
+    @Nested
+    class Cache {
+        @Test
+        public void getAllIsServedFromCache() {
+            when(compilationRepository.findAllByPinned(compilation1.getPinned(), pageable))
+                    .thenReturn(List.of(compilation1));
+            when(compilationRepository.findCompilationEvents(any())).thenReturn(compilationEvents(compilation1));
+            when(eventService.getEventsShortDtoByIds(any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
+
+            List<CompilationDto> firstPage = compilationService.getAll(compilation1.getPinned(), pageable);
+            List<CompilationDto> secondPage = compilationService.getAll(compilation1.getPinned(), pageable);
+
+            assertSame(firstPage, secondPage);
+
+            verify(compilationRepository, times(1)).findAllByPinned(any(), any());
+            verify(eventService, times(1)).getEventsShortDtoByIds(any());
+        }
+
+        @Test
+        public void getAllReloadsAfterMemberEventChanged() {
+            when(compilationRepository.findAllByPinned(compilation1.getPinned(), pageable))
+                    .thenReturn(List.of(compilation1));
+            when(compilationRepository.findCompilationEvents(any())).thenReturn(compilationEvents(compilation1));
+            when(eventService.getEventsShortDtoByIds(any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
+
+            compilationService.getAll(compilation1.getPinned(), pageable);
+            compilationCache.evictEvent(99L);
+            compilationService.getAll(compilation1.getPinned(), pageable);
+            compilationCache.evictEvent(event2.getId());
+            compilationService.getAll(compilation1.getPinned(), pageable);
+
+            verify(compilationRepository, times(2)).findAllByPinned(any(), any());
+            verify(eventService, times(2)).getEventsShortDtoByIds(any());
+        }
+
+        @Test
+        public void getByIdReloadsAfterEvictAll() {
+            when(compilationRepository.findById(compilation2.getId())).thenReturn(Optional.of(compilation2));
+            when(compilationMapper.toCompilationDto(any(), any())).thenCallRealMethod();
+
+            compilationService.getById(compilation2.getId());
+            compilationService.getById(compilation2.getId());
+            compilationCache.evictAll();
+            compilationService.getById(compilation2.getId());
+
+            verify(compilationRepository, times(2)).findById(compilation2.getId());
+        }
+    }
+
+    private List<CompilationEvent> compilationEvents(Compilation compilation) {
+        return compilation.getEvents().stream()
+                .map(event -> new CompilationEvent(compilation.getId(), event.getId()))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,47 @@
+package ru.practicum.main_service.dialect;
+
+import org.hibernate.dialect.function.SQLFunction;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EwmPostgreSQLDialectTest {
+    private final EwmPostgreSQLDialect dialect = new EwmPostgreSQLDialect();
+
+    @Test
+    public void textMatchUsesIndexedExpression() throws IOException {
+        String match = render(EwmPostgreSQLDialect.TEXT_MATCH);
+        String schema = normalize(StreamUtils.copyToString(
+                new ClassPathResource("schema-postgresql.sql").getInputStream(), StandardCharsets.UTF_8));
+
+        String vector = match.substring(0, match.indexOf(" @@ "));
+
+        assertTrue(schema.contains("USING GIN (" + vector + ")"), schema);
+        assertEquals(vector + " @@ plainto_tsquery('russian', ?)", match);
+    }
+
+    @Test
+    public void textRankUsesSameExpression() {
+        String match = render(EwmPostgreSQLDialect.TEXT_MATCH);
+        String rank = render(EwmPostgreSQLDialect.TEXT_RANK);
+
+        assertEquals("ts_rank(" + match.replace(" @@ ", ", ") + ")", rank);
+    }
+
+    private String render(String function) {
+        SQLFunction sqlFunction = dialect.getFunctions().get(function);
+        return normalize(sqlFunction.render(null, List.of("annotation", "description", "?"), null));
+    }
+
+    private String normalize(String sql) {
+        return sql.replace("(", "( ").replace(")", " )").replaceAll("\\s+", " ")
+                .replace("( ", "(").replace(" )", ")").trim();
+    }
+}
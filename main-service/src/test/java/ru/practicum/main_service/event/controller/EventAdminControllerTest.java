@@ -12,6 +12,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main_service.Utils;
 import ru.practicum.main_service.event.dto.EventFullDto;
+import ru.practicum.main_service.event.dto.EventPage;
 import ru.practicum.main_service.event.dto.LocationDto;
 import ru.practicum.main_service.event.dto.UpdateEventAdminRequest;
 import ru.practicum.main_service.event.enums.EventStateAction;
@@ -56,8 +57,8 @@ public class EventAdminControllerTest {
     class FindEventsByAdmin {
         @Test
         public void findEventsForAdmin() throws Exception {
-            when(eventService.getEventsByAdmin(any(), any(), any(), any(), any(), any(), any()))
-                    .thenReturn(List.of(eventFullDto1, eventFullDto2));
+            when(eventService.getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(eventFullDto1, eventFullDto2), null));
 
             mvc.perform(get("/admin/events?users=0&" +
                             "states=PUBLISHED&" +
@@ -73,13 +74,13 @@ public class EventAdminControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventFullDto1, eventFullDto2))));
 
             verify(eventService, times(1))
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
         public void findEventsForAdminWithoutParameters() throws Exception {
-            when(eventService.getEventsByAdmin(any(), any(), any(), any(), any(), any(), any()))
-                    .thenReturn(List.of(eventFullDto1, eventFullDto2));
+            when(eventService.getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(eventFullDto1, eventFullDto2), null));
 
             mvc.perform(get("/admin/events")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -89,13 +90,13 @@ public class EventAdminControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventFullDto1, eventFullDto2))));
 
             verify(eventService, times(1))
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
         public void findEventsForAdminWhenEmpty() throws Exception {
-            when(eventService.getEventsByAdmin(any(), any(), any(), any(), any(), any(), any()))
-                    .thenReturn(List.of());
+            when(eventService.getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(), null));
 
             mvc.perform(get("/admin/events")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -105,7 +106,7 @@ public class EventAdminControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of())));
 
             verify(eventService, times(1))
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -117,7 +118,7 @@ public class EventAdminControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -129,7 +130,7 @@ public class EventAdminControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -141,7 +142,7 @@ public class EventAdminControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -153,7 +154,7 @@ public class EventAdminControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -165,7 +166,7 @@ public class EventAdminControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
     }
 
@@ -12,6 +12,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.main_service.Utils;
 import ru.practicum.main_service.event.dto.EventFullDto;
+import ru.practicum.main_service.event.dto.EventPage;
 import ru.practicum.main_service.event.dto.EventRequestStatusUpdateRequest;
 import ru.practicum.main_service.event.dto.EventRequestStatusUpdateResult;
 import ru.practicum.main_service.event.dto.EventShortDto;
@@ -82,7 +83,8 @@ public class EventPrivateControllerTest {
     class GetAllEventsByPrivate {
         @Test
         public void getAllEvents() throws Exception {
-            when(eventService.getAllEventsByPrivate(any(), any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(eventService.getAllEventsByPrivate(any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(eventShortDto1, eventShortDto2), null));
 
             mvc.perform(get("/users/1/events?from=0&size=100")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -91,12 +93,13 @@ public class EventPrivateControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1, eventShortDto2))));
 
-            verify(eventService, times(1)).getAllEventsByPrivate(any(), any());
+            verify(eventService, times(1)).getAllEventsByPrivate(any(), any(), any());
         }
 
         @Test
         public void getAllEventsByDefault() throws Exception {
-            when(eventService.getAllEventsByPrivate(any(), any())).thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(eventService.getAllEventsByPrivate(any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(eventShortDto1, eventShortDto2), null));
 
             mvc.perform(get("/users/1/events")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -105,12 +108,13 @@ public class EventPrivateControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1, eventShortDto2))));
 
-            verify(eventService, times(1)).getAllEventsByPrivate(any(), any());
+            verify(eventService, times(1)).getAllEventsByPrivate(any(), any(), any());
         }
 
         @Test
         public void getAllEventsWhenEmpty() throws Exception {
-            when(eventService.getAllEventsByPrivate(any(), any())).thenReturn(List.of());
+            when(eventService.getAllEventsByPrivate(any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(), null));
 
             mvc.perform(get("/users/1/events")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -119,7 +123,7 @@ public class EventPrivateControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(content().json(mapper.writeValueAsString(List.of())));
 
-            verify(eventService, times(1)).getAllEventsByPrivate(any(), any());
+            verify(eventService, times(1)).getAllEventsByPrivate(any(), any(), any());
         }
 
         @Test
@@ -130,7 +134,7 @@ public class EventPrivateControllerTest {
                             .accept(MediaType.APPLICATION_JSON))
                     .andExpect(status().isBadRequest());
 
-            verify(eventService, never()).getAllEventsByPrivate(any(), any());
+            verify(eventService, never()).getAllEventsByPrivate(any(), any(), any());
         }
 
         @Test
@@ -141,7 +145,7 @@ public class EventPrivateControllerTest {
                             .accept(MediaType.APPLICATION_JSON))
                     .andExpect(status().isBadRequest());
 
-            verify(eventService, never()).getAllEventsByPrivate(any(), any());
+            verify(eventService, never()).getAllEventsByPrivate(any(), any(), any());
         }
 
         @Test
@@ -152,7 +156,7 @@ public class EventPrivateControllerTest {
                             .accept(MediaType.APPLICATION_JSON))
                     .andExpect(status().isBadRequest());
 
-            verify(eventService, never()).getAllEventsByPrivate(any(), any());
+            verify(eventService, never()).getAllEventsByPrivate(any(), any(), any());
         }
     }
 
@@ -7,9 +7,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.main_service.Utils;
 import ru.practicum.main_service.event.dto.EventFullDto;
+import ru.practicum.main_service.event.dto.EventPage;
 import ru.practicum.main_service.event.dto.EventShortDto;
 import ru.practicum.main_service.event.service.EventService;
 
@@ -17,12 +20,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = EventPublicController.class)
@@ -48,8 +53,8 @@ public class EventPublicControllerTest {
     class GetEventsByPublic {
         @Test
         public void getEventsByPublic() throws Exception {
-            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                    .thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(eventShortDto1, eventShortDto2), null));
 
             mvc.perform(get("/events?text=0&" +
                             "categories=0&" +
@@ -67,13 +72,32 @@ public class EventPublicControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1, eventShortDto2))));
 
             verify(eventService, times(1))
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void getEventsByPublicWithCursor() throws Exception {
+            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                    eq("cursor-1"), any()))
+                    .thenReturn(new EventPage<>(List.of(eventShortDto1), "cursor-2"));
+
+            mvc.perform(get("/events?size=1&cursor=cursor-1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(Utils.NEXT_CURSOR_HEADER, "cursor-2"))
+                    .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1))));
+
+            verify(eventService, times(1))
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), eq("cursor-1"),
+                            any());
         }
 
         @Test
         public void getEventsByPublicWithEmptyParameters() throws Exception {
-            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                    .thenReturn(List.of(eventShortDto1, eventShortDto2));
+            when(eventService.getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(new EventPage<>(List.of(eventShortDto1, eventShortDto2), null));
 
             mvc.perform(get("/events")
                             .characterEncoding(StandardCharsets.UTF_8)
@@ -83,7 +107,7 @@ public class EventPublicControllerTest {
                     .andExpect(content().json(mapper.writeValueAsString(List.of(eventShortDto1, eventShortDto2))));
 
             verify(eventService, times(1))
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -95,7 +119,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -107,7 +131,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -119,7 +143,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -131,7 +155,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
 
         @Test
@@ -143,7 +167,7 @@ public class EventPublicControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(eventService, never())
-                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+                    .getEventsByPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
     }
 
@@ -162,5 +186,38 @@ public class EventPublicControllerTest {
 
             verify(eventService, times(1)).getEventByPublic(any(), any());
         }
+
+        @Test
+        public void getEventByPublicIsRevalidatedByEtag() throws Exception {
+            when(eventService.getEventByPublic(any(), any())).thenReturn(eventFullDto1);
+
+            String etag = mvc.perform(get("/events/1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mvc.perform(get("/events/1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+
+            EventFullDto viewedEvent = EventFullDto.builder()
+                    .id(eventFullDto1.getId())
+                    .views(1L)
+                    .build();
+            when(eventService.getEventByPublic(any(), any())).thenReturn(viewedEvent);
+
+            mvc.perform(get("/events/1")
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json(mapper.writeValueAsString(viewedEvent)));
+
+            verify(eventService, times(3)).getEventByPublic(any(), any());
+        }
     }
 }
@@ -1,11 +1,14 @@
 package ru.practicum.main_service.event.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
@@ -15,6 +18,8 @@ import ru.practicum.main_service.event.domain.model.Event;
 import ru.practicum.main_service.event.domain.model.Location;
 import ru.practicum.main_service.event.domain.repository.EventRepository;
 import ru.practicum.main_service.event.domain.repository.LocationRepository;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventSortType;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.user.domain.model.User;
 import ru.practicum.main_service.user.domain.repository.UserRepository;
@@ -22,6 +27,8 @@ import ru.practicum.main_service.user.domain.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -34,6 +41,7 @@ public class EventRepositoryTest {
     private final CategoryRepository categoryRepository;
     private final LocationRepository locationRepository;
     private final EventRepository eventRepository;
+    private final TestEntityManager entityManager;
 
     private final Pageable pageable = PageRequest.of(0 / 10, 10);
     private final User user = User.builder()
@@ -110,30 +118,94 @@ public class EventRepositoryTest {
     }
 
     @Nested
-    class FindAllByInitiatorId {
+    class FindAllShortByInitiatorId {
         @Test
-        public void findAllByInitiatorId() {
-            List<Event> eventsFromRepository = eventRepository.findAllByInitiatorId(user.getId(), pageable);
+        public void findAllShortByInitiatorId() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllShortByInitiatorId(user.getId(),
+                    pageable);
 
             assertEquals(3, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
-            Event eventFromRepository2 = eventsFromRepository.get(1);
-            Event eventFromRepository3 = eventsFromRepository.get(2);
+            EventShortView eventFromRepository1 = eventsFromRepository.get(0);
 
             assertEquals(event1.getId(), eventFromRepository1.getId());
-            assertEquals(event2.getId(), eventFromRepository2.getId());
-            assertEquals(event3.getId(), eventFromRepository3.getId());
+            assertEquals(event1.getTitle(), eventFromRepository1.getTitle());
+            assertEquals(event1.getAnnotation(), eventFromRepository1.getAnnotation());
+            assertEquals(category.getId(), eventFromRepository1.getCategoryId());
+            assertEquals(category.getName(), eventFromRepository1.getCategoryName());
+            assertEquals(user.getId(), eventFromRepository1.getInitiatorId());
+            assertEquals(user.getName(), eventFromRepository1.getInitiatorName());
+            assertEquals(0L, eventFromRepository1.getConfirmedRequests());
+        }
+
+        @Test
+        public void findAllShortByInitiatorIdAfter() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllShortByInitiatorIdAfter(user.getId(),
+                    event1.getId(), PageRequest.of(0, 1));
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void findAllShortByIdIn() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllShortByIdIn(
+                    List.of(event3.getId(), event1.getId(), 99L));
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(Set.of(event1.getId(), event3.getId()), eventsFromRepository.stream()
+                    .map(EventShortView::getId)
+                    .collect(Collectors.toSet()));
         }
 
         @Test
-        public void findAllWhenEmpty() {
-            List<Event> eventsFromRepository = eventRepository.findAllByInitiatorId(99L, pageable);
+        public void findAllShortWhenEmpty() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllShortByInitiatorId(99L, pageable);
 
             assertTrue(eventsFromRepository.isEmpty());
         }
     }
 
+    @Nested
+    class ListingStatements {
+        @Test
+        public void findAllForAdminFetchesAssociationsInOneStatement() {
+            Statistics statistics = startStatistics();
+
+            List<Event> eventsFromRepository = eventRepository.findAllForAdmin(null, null, null,
+                    null, null, null, 0, 10);
+            eventsFromRepository.forEach(event -> {
+                assertEquals(category.getName(), event.getCategory().getName());
+                assertEquals(location.getLat(), event.getLocation().getLat());
+                assertEquals(user.getName(), event.getInitiator().getName());
+            });
+
+            assertEquals(3, eventsFromRepository.size());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        public void findAllForPublicUsesOneStatement() {
+            Statistics statistics = startStatistics();
+
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, null, null, null, null, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        private Statistics startStatistics() {
+            entityManager.flush();
+            entityManager.clear();
+            Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                    .unwrap(SessionFactory.class).getStatistics();
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            return statistics;
+        }
+    }
+
     @Nested
     class FindByIdAndInitiatorId {
         @Test
@@ -191,7 +263,7 @@ public class EventRepositoryTest {
         public void findAllEventsByAdmin() {
             List<Event> eventsFromRepository = eventRepository.findAllForAdmin(List.of(user.getId()),
                     List.of(EventState.values()), List.of(category.getId()), LocalDateTime.now().plusDays(1),
-                    LocalDateTime.now().plusDays(5),0, 10);
+                    LocalDateTime.now().plusDays(5),null, 0, 10);
 
             assertEquals(2, eventsFromRepository.size());
 
@@ -206,7 +278,7 @@ public class EventRepositoryTest {
         public void findAllEventsByAdminTest() {
             List<Event> eventsFromRepository = eventRepository.findAllForAdmin(List.of(user.getId()),
                     List.of(EventState.PUBLISHED), List.of(category.getId()), LocalDateTime.now().plusDays(5),
-                    LocalDateTime.now().plusDays(6),0, 10);
+                    LocalDateTime.now().plusDays(6),null, 0, 10);
 
             assertEquals(1, eventsFromRepository.size());
 
@@ -218,7 +290,7 @@ public class EventRepositoryTest {
         @Test
         public void findAllEventsByAdminReturnAll() {
             List<Event> eventsFromRepository = eventRepository.findAllForAdmin(null, null, null,
-                    null, null,0,10);
+                    null, null,null, 0,10);
 
             assertEquals(3, eventsFromRepository.size());
 
@@ -231,10 +303,20 @@ public class EventRepositoryTest {
             assertEquals(event3.getId(), eventFromRepository3.getId());
         }
 
+        @Test
+        public void findAllEventsByAdminAfterId() {
+            List<Event> eventsFromRepository = eventRepository.findAllForAdmin(null, null, null,
+                    null, null, event1.getId(), 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(event3.getId(), eventsFromRepository.get(1).getId());
+        }
+
         @Test
         public void findAllEventsByAdminWhenEmpty() {
             List<Event> eventsFromRepository = eventRepository.findAllForAdmin(List.of(45L), null, null,
-                    null, null, 0,10);
+                    null, null, null, 0,10);
 
             assertTrue(eventsFromRepository.isEmpty());
         }
@@ -245,51 +327,225 @@ public class EventRepositoryTest {
     class FindAllEventsByPublic {
         @Test
         public void findAllEventsByPublic() {
-            List<Event> eventsFromRepository = eventRepository.findAllForPublic("TeSt", List.of(category.getId()),
-                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), 0,10);
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic("TeSt", List.of(category.getId()),
+                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), false, null, null, null, null, null, 0, 10);
 
             assertEquals(2, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
-            Event eventFromRepository2 = eventsFromRepository.get(1);
+            EventShortView eventFromRepository1 = eventsFromRepository.get(0);
+            EventShortView eventFromRepository2 = eventsFromRepository.get(1);
 
             assertEquals(event2.getId(), eventFromRepository1.getId());
             assertEquals(event3.getId(), eventFromRepository2.getId());
+            assertEquals(category.getName(), eventFromRepository1.getCategoryName());
+            assertEquals(user.getName(), eventFromRepository1.getInitiatorName());
+            assertEquals(event2.getParticipantLimit(), eventFromRepository1.getParticipantLimit());
         }
 
         @Test
         public void findAllEventsByPublicTest() {
-            List<Event> eventsFromRepository = eventRepository.findAllForPublic("ON 2", List.of(category.getId()),
-                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), 0,10);
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic("ON 2", List.of(category.getId()),
+                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), false, null, null, null, null, null, 0, 10);
 
             assertEquals(1, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
+            EventShortView eventFromRepository1 = eventsFromRepository.get(0);
 
             assertEquals(event2.getId(), eventFromRepository1.getId());
         }
 
+        @Test
+        public void findAllEventsByPublicRankedByMatch() {
+            event3.setAnnotation("description first");
+            eventRepository.save(event3);
+
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic("DESCRIPTION", null,
+                    null, null, null, false, null, null, null, null, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(event2.getId(), eventsFromRepository.get(1).getId());
+        }
+
         @Test
         public void findAllEventsByPublicAllPublished() {
-            List<Event> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
-                    null, null, 0,10);
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, null, null, null, null, null, 0, 10);
 
             assertEquals(2, eventsFromRepository.size());
 
-            Event eventFromRepository1 = eventsFromRepository.get(0);
-            Event eventFromRepository2 = eventsFromRepository.get(1);
+            EventShortView eventFromRepository1 = eventsFromRepository.get(0);
+            EventShortView eventFromRepository2 = eventsFromRepository.get(1);
 
             assertEquals(event2.getId(), eventFromRepository1.getId());
             assertEquals(event3.getId(), eventFromRepository2.getId());
         }
 
+        @Test
+        public void findAllEventsByPublicAfterId() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, null, null, null, null, EventShortView.builder().id(event2.getId()).build(),
+                    0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+
         @Test
         public void findAllEventsByPublicWhenEmpty() {
-            List<Event> eventsFromRepository = eventRepository.findAllForPublic("rtyuibh tyybh", List.of(category.getId()),
-                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), 0,10);
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic("rtyuibh tyybh", List.of(category.getId()),
+                    true, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(7), false, null, null, null, null, null, 0, 10);
+
+            assertTrue(eventsFromRepository.isEmpty());
+        }
+    }
+
+    @Nested
+    class FindAllEventsByPublicSorted {
+        @Test
+        public void findAllEventsByPublicOnlyAvailable() {
+            eventRepository.addConfirmedRequests(event2.getId(), 50);
+
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, true, null, null, null, null, null, 0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void findAllEventsByPublicSortedByEventDate() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, null, null, null, EventSortType.EVENT_DATE, null, 0, 1);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+
+            eventsFromRepository = eventRepository.findAllForPublic(null, null, null, null, null, false, null, null,
+                    null, EventSortType.EVENT_DATE, eventsFromRepository.get(0), 0, 1);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void findAllEventsByPublicSortedByViews() {
+            assertEquals(1, eventRepository.updateViews(event2.getId(), 5));
+            assertEquals(1, eventRepository.updateViews(event3.getId(), 7));
+            assertEquals(0, eventRepository.updateViews(event3.getId(), 6));
+            entityManager.clear();
+
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, null, null, null, EventSortType.VIEWS, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+            assertEquals(5L, eventsFromRepository.get(0).getViews());
+            assertEquals(event3.getId(), eventsFromRepository.get(1).getId());
+            assertEquals(7L, eventsFromRepository.get(1).getViews());
+
+            eventsFromRepository = eventRepository.findAllForPublic(null, null, null, null, null, false, null, null, null,
+                    EventSortType.VIEWS, eventsFromRepository.get(0), 0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+    }
+
+    @Nested
+    class FindAllEventsByPublicNearPoint {
+        @BeforeEach
+        public void beforeEach() {
+            event3.setLocation(locationRepository.save(Location.builder().lat(55.7558F).lon(37.6173F).build()));
+            eventRepository.save(event3);
+        }
+
+        @Test
+        public void findAllEventsByPublicWithinRadius() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, 55.70F, 37.60F, 10F, null, null, 0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+
+        @Test
+        public void findAllEventsByPublicOutsideRadius() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, 55.70F, 37.60F, 5F, null, null, 0, 10);
 
             assertTrue(eventsFromRepository.isEmpty());
         }
+
+        @Test
+        public void findAllEventsByPublicWithinLargeRadius() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, 40F, 10F, 5000F, null, null, 0, 10);
+
+            assertEquals(2, eventsFromRepository.size());
+        }
+
+        @Test
+        public void findAllEventsByPublicAcrossAntimeridian() {
+            event2.setLocation(locationRepository.save(Location.builder().lat(-16.5F).lon(179.98F).build()));
+            eventRepository.save(event2);
+
+            List<EventShortView> eventsFromRepository = eventRepository.findAllForPublic(null, null, null,
+                    null, null, false, -16.5F, -179.98F, 10F, null, null, 0, 10);
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+        }
+    }
+
+    @Nested
+    class FindAllShortByStateAfter {
+        @Test
+        public void findAllShortByStateAfter() {
+            List<EventShortView> eventsFromRepository = eventRepository.findAllShortByStateAfter(
+                    EventState.PUBLISHED, 0L, PageRequest.of(0, 1));
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event2.getId(), eventsFromRepository.get(0).getId());
+
+            eventsFromRepository = eventRepository.findAllShortByStateAfter(EventState.PUBLISHED,
+                    event2.getId(), PageRequest.of(0, 10));
+
+            assertEquals(1, eventsFromRepository.size());
+            assertEquals(event3.getId(), eventsFromRepository.get(0).getId());
+        }
+    }
+
+    @Nested
+    class AddConfirmedRequests {
+        @Test
+        public void addConfirmedRequests() {
+            assertEquals(1, eventRepository.addConfirmedRequests(event2.getId(), 3));
+            assertEquals(1, eventRepository.addConfirmedRequests(event2.getId(), -1));
+            entityManager.clear();
+
+            assertEquals(2L, eventRepository.findById(event2.getId()).orElseThrow().getConfirmedRequests());
+            assertEquals(0L, eventRepository.findById(event1.getId()).orElseThrow().getConfirmedRequests());
+        }
+
+        @Test
+        public void saveOfStaleEventKeepsConfirmedRequests() {
+            Event stale = eventRepository.findById(event2.getId()).orElseThrow();
+            eventRepository.addConfirmedRequests(event2.getId(), 3);
+
+            stale.setTitle("updated title");
+            eventRepository.saveAndFlush(stale);
+            entityManager.clear();
+
+            Event eventFromRepository = eventRepository.findById(event2.getId()).orElseThrow();
+            assertEquals("updated title", eventFromRepository.getTitle());
+            assertEquals(3L, eventFromRepository.getConfirmedRequests());
+        }
+
+        @Test
+        public void addConfirmedRequestsWhenEventNotFound() {
+            assertEquals(0, eventRepository.addConfirmedRequests(99L, 1));
+        }
     }
 
 }
@@ -8,9 +8,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.main_service.event.domain.model.Location;
+import ru.practicum.main_service.event.domain.model.LocationGrid;
 import ru.practicum.main_service.event.domain.repository.LocationRepository;
 
-import java.util.Optional;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -39,24 +40,48 @@ public class LocationRepositoryTest {
     }
 
     @Nested
-    class FindByLatAndLon {
+    class Upsert {
         @Test
-        public void findByLatAndLon() {
-            Optional<Location> optionalLocation = locationRepository.findByLatAndLon(location2.getLat(),
-                    location2.getLon());
+        public void upsertReturnsExistingLocation() {
+            Long id = locationRepository.upsert(location2.getLat(), location2.getLon());
 
-            assertTrue(optionalLocation.isPresent());
+            assertEquals(location2.getId(), id);
+            assertEquals(2, locationRepository.count());
+        }
+
+        @Test
+        public void upsertCreatesLocation() {
+            Long id = locationRepository.upsert(55.7558F, 37.6173F);
 
-            Location locationFromRepository = optionalLocation.get();
+            Location locationFromRepository = locationRepository.findById(id).orElseThrow();
+
+            assertEquals(55.7558F, locationFromRepository.getLat());
+            assertEquals(37.6173F, locationFromRepository.getLon());
+            assertEquals(LocationGrid.cell(55.7558F, 37.6173F), locationFromRepository.getCell());
+            assertEquals(id, locationRepository.upsert(55.7558F, 37.6173F));
+            assertEquals(3, locationRepository.count());
+        }
+    }
+
+    @Nested
+    class CellRanges {
+        @Test
+        public void smallRadiusCoversOneRangePerRow() {
+            List<LocationGrid.CellRange> ranges = LocationGrid.cellRanges(55.75, 37.61, 10);
 
-            assertEquals(location2, locationFromRepository);
+            assertTrue(ranges.size() > 1 && ranges.size() <= 16);
+            assertTrue(ranges.stream().anyMatch(range -> range.getFrom() <= LocationGrid.cell(55.75, 37.61)
+                    && LocationGrid.cell(55.75, 37.61) <= range.getTo()));
         }
 
         @Test
-        public void findByLatAndLonWhenEmpty() {
-            Optional<Location> optionalLocation = locationRepository.findByLatAndLon(0F, 0F);
+        public void largeRadiusCoversWholeLatitudeBand() {
+            List<LocationGrid.CellRange> ranges = LocationGrid.cellRanges(55.75, 37.61,
+                    LocationGrid.MAX_SEARCH_RADIUS_KM);
 
-            assertTrue(optionalLocation.isEmpty());
+            assertEquals(1, ranges.size());
+            assertTrue(ranges.get(0).getFrom() <= LocationGrid.cell(50.0, -170.0));
+            assertTrue(ranges.get(0).getTo() >= LocationGrid.cell(62.0, 170.0));
         }
     }
 }
@@ -15,7 +15,7 @@ import ru.practicum.main_service.event.domain.model.Request;
 import ru.practicum.main_service.event.domain.repository.EventRepository;
 import ru.practicum.main_service.event.domain.repository.LocationRepository;
 import ru.practicum.main_service.event.domain.repository.RequestRepository;
-import ru.practicum.main_service.event.dto.RequestStats;
+import ru.practicum.main_service.event.dto.ParticipationRequestDto;
 import ru.practicum.main_service.event.enums.EventState;
 import ru.practicum.main_service.event.enums.RequestStatus;
 import ru.practicum.main_service.user.domain.model.User;
@@ -224,40 +224,6 @@ public class RequestRepositoryTest {
         }
     }
 
-    @Nested
-    class FindAllByEventIdAndStatus {
-        @Test
-        public void findAllByEventIdAndStatus() {
-            List<Request> requestsFromRepository = requestRepository.findAllByEventIdAndStatus(event1.getId(), RequestStatus.CONFIRMED);
-
-            assertEquals(2, requestsFromRepository.size());
-
-            Request requestFromRepository1 = requestsFromRepository.get(0);
-            Request requestFromRepository2 = requestsFromRepository.get(1);
-
-            assertEquals(request1.getId(), requestFromRepository1.getId());
-            assertEquals(request2.getId(), requestFromRepository2.getId());
-        }
-
-        @Test
-        public void findAllByEventIdAndStatusTest() {
-            List<Request> requestsFromRepository = requestRepository.findAllByEventIdAndStatus(event2.getId(), RequestStatus.CONFIRMED);
-
-            assertEquals(1, requestsFromRepository.size());
-
-            Request requestFromRepository1 = requestsFromRepository.get(0);
-
-            assertEquals(request5.getId(), requestFromRepository1.getId());
-        }
-
-        @Test
-        public void findAllByEventIdAndStatusWhenEmpty() {
-            List<Request> requestsFromRepository = requestRepository.findAllByEventIdAndStatus(event2.getId(), RequestStatus.REJECTED);
-
-            assertTrue(requestsFromRepository.isEmpty());
-        }
-    }
-
     @Nested
     class FindAllByEventId {
         @Test
@@ -327,41 +293,63 @@ public class RequestRepositoryTest {
     }
 
     @Nested
-    class GetConfirmedRequests {
+    class FindParticipationRequests {
         @Test
-        public void getConfirmedRequests() {
-            List<RequestStats> requestStatsFromRepository = requestRepository.getConfirmedRequests(
-                    List.of(event1.getId(), event2.getId()));
-
-            assertEquals(2, requestStatsFromRepository.size());
+        public void findParticipationRequests() {
+            List<ParticipationRequestDto> requestsFromRepository = requestRepository.findParticipationRequests(
+                    event1.getId(), List.of(request1.getId(), request3.getId(), request4.getId()));
 
-            RequestStats requestStats1 = requestStatsFromRepository.get(0);
-            RequestStats requestStats2 = requestStatsFromRepository.get(1);
+            assertEquals(2, requestsFromRepository.size());
 
-            assertEquals(event1.getId(), requestStats1.getEventId());
-            assertEquals(2L, requestStats1.getConfirmedRequests());
+            ParticipationRequestDto requestFromRepository1 = requestsFromRepository.get(0);
+            ParticipationRequestDto requestFromRepository2 = requestsFromRepository.get(1);
 
-            assertEquals(event2.getId(), requestStats2.getEventId());
-            assertEquals(1L, requestStats2.getConfirmedRequests());
+            assertEquals(request1.getId(), requestFromRepository1.getId());
+            assertEquals(event1.getId(), requestFromRepository1.getEvent());
+            assertEquals(user2.getId(), requestFromRepository1.getRequester());
+            assertEquals(RequestStatus.CONFIRMED, requestFromRepository1.getStatus());
+            assertEquals(request3.getId(), requestFromRepository2.getId());
+            assertEquals(RequestStatus.PENDING, requestFromRepository2.getStatus());
         }
 
         @Test
-        public void getConfirmedRequestsTest() {
-            List<RequestStats> requestStatsFromRepository = requestRepository.getConfirmedRequests(List.of(event2.getId()));
+        public void findParticipationRequestsByStatus() {
+            List<ParticipationRequestDto> requestsFromRepository = requestRepository.findParticipationRequestsByStatus(
+                    event1.getId(), RequestStatus.PENDING);
 
-            assertEquals(1L, requestStatsFromRepository.size());
-
-            RequestStats requestStats1 = requestStatsFromRepository.get(0);
+            assertEquals(1, requestsFromRepository.size());
+            assertEquals(request3.getId(), requestsFromRepository.get(0).getId());
+        }
+    }
 
-            assertEquals(event2.getId(), requestStats1.getEventId());
-            assertEquals(1L, requestStats1.getConfirmedRequests());
+    @Nested
+    class UpdateStatus {
+        @Test
+        public void updateStatus() {
+            int updated = requestRepository.updateStatus(List.of(request3.getId()), RequestStatus.PENDING,
+                    RequestStatus.REJECTED);
+
+            assertEquals(1, updated);
+            assertTrue(requestRepository.findParticipationRequestsByStatus(event1.getId(), RequestStatus.PENDING)
+                    .isEmpty());
+            assertEquals(1, requestRepository.findParticipationRequestsByStatus(event1.getId(),
+                    RequestStatus.REJECTED).size());
         }
 
         @Test
-        public void getConfirmedRequestsWhenEmpty() {
-            List<RequestStats> requestStatsFromRepository = requestRepository.getConfirmedRequests(List.of());
+        public void updateStatusSkipsRequestsNotInSourceStatus() {
+            int updated = requestRepository.updateStatus(List.of(request1.getId(), request3.getId(), 99L),
+                    RequestStatus.PENDING, RequestStatus.CONFIRMED);
+
+            assertEquals(1, updated);
+            assertEquals(3, requestRepository.findParticipationRequestsByStatus(event1.getId(),
+                    RequestStatus.CONFIRMED).size());
+        }
 
-            assertTrue(requestStatsFromRepository.isEmpty());
+        @Test
+        public void updateStatusWhenIdsIsEmpty() {
+            assertEquals(0, requestRepository.updateStatus(List.of(), RequestStatus.PENDING,
+                    RequestStatus.REJECTED));
         }
     }
 }
@@ -14,14 +14,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockHttpServletRequest;
 import ru.practicum.main_service.category.domain.model.Category;
-import ru.practicum.main_service.category.domain.repository.CategoryRepository;
 import ru.practicum.main_service.category.dto.CategoryDto;
+import ru.practicum.main_service.category.service.CategorySnapshot;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.event.domain.model.Event;
 import ru.practicum.main_service.event.domain.model.Location;
 import ru.practicum.main_service.event.domain.repository.EventRepository;
 import ru.practicum.main_service.event.domain.repository.LocationRepository;
 import ru.practicum.main_service.event.dto.EventFullDto;
+import ru.practicum.main_service.event.dto.EventPage;
 import ru.practicum.main_service.event.dto.EventShortDto;
+import ru.practicum.main_service.event.dto.EventShortView;
 import ru.practicum.main_service.event.dto.LocationDto;
 import ru.practicum.main_service.event.dto.NewEventDto;
 import ru.practicum.main_service.event.dto.UpdateEventAdminRequest;
@@ -45,10 +48,15 @@ import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -60,7 +68,7 @@ public class EventServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private CategorySnapshot categorySnapshot;
 
     @Mock
     private StatsService statsService;
@@ -78,6 +86,9 @@ public class EventServiceTest {
     private EventMapperImpl eventMapper;
 
 
+    @Mock
+    private CompilationCache compilationCache;
+
     @InjectMocks
     private EventService eventService;
 
@@ -196,6 +207,21 @@ public class EventServiceTest {
             .views(60L)
             .confirmedRequests(10L)
             .build();
+    private final EventShortView eventShortView1 = EventShortView.builder()
+            .id(event1.getId())
+            .annotation(event1.getAnnotation())
+            .categoryId(category.getId())
+            .categoryName(category.getName())
+            .eventDate(event1.getEventDate())
+            .initiatorId(user.getId())
+            .initiatorName(user.getName())
+            .paid(event1.getPaid())
+            .title(event1.getTitle())
+            .participantLimit(event1.getParticipantLimit())
+            .confirmedRequests(event1.getConfirmedRequests())
+            .publishedOn(event1.getPublishedOn())
+            .views(60L)
+            .build();
     private final EventShortDto eventShortDto1 = EventShortDto.builder()
             .id(event1.getId())
             .title(event1.getTitle())
@@ -252,21 +278,22 @@ public class EventServiceTest {
         @Test
         public void getEventsByAdmin() {
             when(eventRepository.findAllForAdmin(any(), any(),
-                    any(), any(), any(), any(), any())).thenReturn(List.of(event1));
+                    any(), any(), any(), any(), any(), any())).thenReturn(List.of(event1));
             when(statsService.getViews(any())).thenReturn(views);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
 
             List<EventFullDto> eventsFullDto = eventService.getEventsByAdmin(List.of(event1.getInitiator().getId()),
                     List.of(event1.getState()), List.of(event1.getCategory().getId()), event1.getCreatedOn(),
-                    event1.getCreatedOn().plusDays(5), 0, 10);
+                    event1.getCreatedOn().plusDays(5), 0, 10, null).getEvents();
 
             assertEquals(1, eventsFullDto.size());
 
             assertEquals(eventFullDto1, eventsFullDto.get(0));
 
             verify(eventRepository, times(1))
-                    .findAllForAdmin(any(), any(), any(), any(), any(), any(), any());
+                    .findAllForAdmin(any(), any(),
+                    any(), any(), any(), any(), any(), any());
             verify(statsService, times(1)).getViews(any());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
@@ -277,12 +304,77 @@ public class EventServiceTest {
             ValidationException exception = assertThrows(ValidationException.class,
                     () -> eventService.getEventsByAdmin(List.of(event1.getInitiator().getId()),
                             List.of(event1.getState()), List.of(event1.getCategory().getId()), event1.getCreatedOn(),
-                            event1.getCreatedOn().minusMinutes(5), 0, 10));
+                            event1.getCreatedOn().minusMinutes(5), 0, 10, null));
             assertEquals(String.format("Field: eventDate. Error: некорректные параметры временного " +
                             "интервала. Value: rangeStart = %s, rangeEnd = %s", event1.getCreatedOn(),
                     event1.getCreatedOn().minusMinutes(5)), exception.getMessage());
 
-            verify(eventRepository, never()).findAllForAdmin(any(), any(), any(), any(), any(), any(), any());
+            verify(eventRepository, never()).findAllForAdmin(any(), any(),
+                    any(), any(), any(), any(), any(), any());
+        }
+        @Test
+        public void getEventsByAdminFollowsCursor() {
+            when(eventRepository.findAllForAdmin(any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(event1));
+            when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
+
+            EventPage<EventFullDto> firstPage = eventService.getEventsByAdmin(null, null, null, null, null,
+                    0, 1, null);
+
+            assertNotNull(firstPage.getNextCursor());
+            verify(eventRepository, times(1))
+                    .findAllForAdmin(any(), any(), any(), any(), any(), isNull(), eq(0), eq(1));
+
+            eventService.getEventsByAdmin(null, null, null, null, null, 0, 1, firstPage.getNextCursor());
+
+            verify(eventRepository, times(1))
+                    .findAllForAdmin(any(), any(), any(), any(), any(), eq(event1.getId()), eq(0), eq(1));
+        }
+
+        @Test
+        public void getEventsByAdminWithoutNextCursorOnLastPage() {
+            when(eventRepository.findAllForAdmin(any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(event1));
+            when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
+
+            EventPage<EventFullDto> page = eventService.getEventsByAdmin(null, null, null, null, null,
+                    0, 10, null);
+
+            assertEquals(1, page.getEvents().size());
+            assertNull(page.getNextCursor());
+        }
+
+        @Test
+        public void getEventsByAdminWhenCursorWithFrom() {
+            String cursor = EventCursor.afterId(event1.getId());
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByAdmin(null, null, null, null, null, 10, 10, cursor));
+            assertEquals("Field: cursor. Error: курсор нельзя использовать вместе с параметром from. " +
+                    "Value: from = 10", exception.getMessage());
+
+            verify(eventRepository, never()).findAllForAdmin(any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void getEventsByAdminWhenCursorIsOffset() {
+            String cursor = EventCursor.offset(10);
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByAdmin(null, null, null, null, null, 0, 10, cursor));
+            assertEquals(String.format("Field: cursor. Error: некорректный курсор. Value: %s", cursor),
+                    exception.getMessage());
+
+            verify(eventRepository, never()).findAllForAdmin(any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void getEventsByAdminWhenCursorIsInvalid() {
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByAdmin(null, null, null, null, null, 0, 10, "broken"));
+            assertEquals("Field: cursor. Error: некорректный курсор. Value: broken", exception.getMessage());
+
+            verify(eventRepository, never()).findAllForAdmin(any(), any(), any(), any(), any(), any(), any(), any());
         }
     }
 
@@ -329,11 +421,9 @@ public class EventServiceTest {
             updatedEvent1.setState(EventState.REJECTED);
 
             when(eventRepository.findById(event1.getId())).thenReturn(Optional.of(event1));
-            when(categoryRepository.findById(updatedCategory.getId())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(updatedCategory.getId())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(any(), any()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getViews(any())).thenReturn(views);
@@ -344,10 +434,9 @@ public class EventServiceTest {
             assertEquals(eventFullDto1, eventFullDto);
 
             verify(eventRepository, times(1)).findById(any());
-            verify(categoryRepository, times(1)).findById(anyLong());
+            verify(categorySnapshot, times(1)).findById(anyLong());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(statsService, times(2)).getConfirmedRequests(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(statsService, times(1)).getViews(any());
@@ -365,11 +454,9 @@ public class EventServiceTest {
             updatedEvent1.setParticipantLimit(0);
 
             when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event1));
-            when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(any(), any()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getViews(any())).thenReturn(views);
@@ -380,10 +467,9 @@ public class EventServiceTest {
             assertEquals(eventFullDto1, eventFullDto);
 
             verify(eventRepository, times(1)).findById(any());
-            verify(categoryRepository, times(1)).findById(anyLong());
+            verify(categorySnapshot, times(1)).findById(anyLong());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(statsService, times(2)).getConfirmedRequests(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(statsService, times(1)).getViews(any());
@@ -424,11 +510,9 @@ public class EventServiceTest {
             confirmedRequests.put(event1.getId(), 51L);
 
             when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event1));
-            when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(updatedLocationDto.getLat(), updatedLocationDto.getLon()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
 
             ForbiddenException exception = assertThrows(ForbiddenException.class,
@@ -438,10 +522,9 @@ public class EventServiceTest {
                     exception.getMessage());
 
             verify(eventRepository, times(1)).findById(anyLong());
-            verify(categoryRepository, times(1)).findById(anyLong());
+            verify(categorySnapshot, times(1)).findById(anyLong());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(eventRepository, never()).save(any());
         }
@@ -449,11 +532,9 @@ public class EventServiceTest {
         @Test
         public void editEventByAdminWhenEventStateNotPending() {
             when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event2));
-            when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(any(), any()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
 
             ForbiddenException exception = assertThrows(ForbiddenException.class,
@@ -463,10 +544,9 @@ public class EventServiceTest {
                     exception.getMessage());
 
             verify(eventRepository, times(1)).findById(anyLong());
-            verify(categoryRepository, times(1)).findById(anyLong());
+            verify(categorySnapshot, times(1)).findById(anyLong());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(eventRepository, never()).save(any());
         }
@@ -513,11 +593,9 @@ public class EventServiceTest {
             confirmedRequests.put(event1.getId(), eventFullDto1.getConfirmedRequests());
 
             when(eventRepository.findById(anyLong())).thenReturn(Optional.of(event1));
-            when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(anyLong())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(updatedLocationDto.getLat(), updatedLocationDto.getLon()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getViews(any())).thenReturn(views);
@@ -528,10 +606,9 @@ public class EventServiceTest {
             assertEquals(eventFullDto1, eventFullDto);
 
             verify(eventRepository, times(1)).findById(any());
-            verify(categoryRepository, times(1)).findById(any());
+            verify(categorySnapshot, times(1)).findById(any());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(statsService, times(2)).getConfirmedRequests(any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(statsService, times(1)).getViews(any());
@@ -548,21 +625,39 @@ public class EventServiceTest {
         @Test
         public void getAllEventsByPrivate() {
             when(userRepository.findById(anyLong())).thenReturn(Optional.of(event1.getInitiator()));
-            when(eventRepository.findAllByInitiatorId(anyLong(), any())).thenReturn(List.of(event1));
+            when(eventRepository.findAllShortByInitiatorId(anyLong(), any())).thenReturn(List.of(eventShortView1));
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(statsService.getViews(any())).thenReturn(views);
-            when(eventMapper.toEventShortDto(any(), any(), any())).thenReturn(eventShortDto1);
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
 
-            List<EventShortDto> eventsShortDto = eventService.getAllEventsByPrivate(event1.getInitiator().getId(), pageable);
+            List<EventShortDto> eventsShortDto = eventService.getAllEventsByPrivate(event1.getInitiator().getId(),
+                    pageable, null).getEvents();
 
             assertEquals(1, eventsShortDto.size());
             assertEquals(eventShortDto1, eventsShortDto.get(0));
 
             verify(userRepository, times(1)).findById(any());
-            verify(eventRepository, times(1)).findAllByInitiatorId(any(), any());
+            verify(eventRepository, times(1)).findAllShortByInitiatorId(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(statsService, times(1)).getViews(any());
-            verify(eventMapper, times(1)).toEventShortDto(any(), any(), any());
+            verify(eventMapper, times(1)).toEventShortDto(any(EventShortView.class), any(), any());
+        }
+        @Test
+        public void getAllEventsByPrivateWithCursor() {
+            when(userRepository.findById(anyLong())).thenReturn(Optional.of(event1.getInitiator()));
+            when(eventRepository.findAllShortByInitiatorIdAfter(anyLong(), anyLong(), any()))
+                    .thenReturn(List.of(eventShortView1));
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
+
+            EventPage<EventShortDto> page = eventService.getAllEventsByPrivate(event1.getInitiator().getId(),
+                    PageRequest.of(0, 1), EventCursor.afterId(5L));
+
+            assertEquals(List.of(eventShortDto1), page.getEvents());
+            assertEquals(EventCursor.afterId(eventShortView1.getId()), page.getNextCursor());
+
+            verify(eventRepository, times(1))
+                    .findAllShortByInitiatorIdAfter(event1.getInitiator().getId(), 5L, PageRequest.of(0, 1));
+            verify(eventRepository, never()).findAllShortByInitiatorId(any(), any());
         }
     }
 
@@ -586,11 +681,9 @@ public class EventServiceTest {
         @Test
         public void createEventByPrivate() {
             when(userRepository.findById(anyLong())).thenReturn(Optional.of(event1.getInitiator()));
-            when(categoryRepository.findById(any())).thenReturn(Optional.of(category));
+            when(categorySnapshot.findById(any())).thenReturn(Optional.of(category));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(any(), any()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(location);
+            when(locationRepository.upsert(any(), any())).thenReturn(location.getId());
             when(eventMapper.toEvent(any(), any(), any(), any(), any(), any())).thenReturn(event1);
             when(eventRepository.save(any())).thenReturn(event1);
             when(eventMapper.toEventFullDto(any(), any(), any())).thenReturn(eventFullDto1);
@@ -600,10 +693,9 @@ public class EventServiceTest {
             assertEquals(eventFullDto1, eventFullDtoFromRepository);
 
             verify(userRepository, times(1)).findById(any());
-            verify(categoryRepository, times(1)).findById(any());
+            verify(categorySnapshot, times(1)).findById(any());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(eventMapper, times(1)).toEvent(any(), any(), any(), any(), any(), any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
@@ -704,11 +796,9 @@ public class EventServiceTest {
             when(userRepository.findById(anyLong())).thenReturn(Optional.of(event1.getInitiator()));
             when(eventRepository.findByIdAndInitiatorId(anyLong(), anyLong()))
                     .thenReturn(Optional.of(event1));
-            when(categoryRepository.findById(any())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(any())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(any(), any()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(statsService.getViews(any())).thenReturn(views);
@@ -721,10 +811,9 @@ public class EventServiceTest {
 
             verify(userRepository, times(1)).findById(anyLong());
             verify(eventRepository, times(1)).findByIdAndInitiatorId(any(), any());
-            verify(categoryRepository, times(1)).findById(any());
+            verify(categorySnapshot, times(1)).findById(any());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(statsService, times(1)).getViews(any());
@@ -743,11 +832,9 @@ public class EventServiceTest {
             when(userRepository.findById(anyLong())).thenReturn(Optional.of(event1.getInitiator()));
             when(eventRepository.findByIdAndInitiatorId(anyLong(), anyLong()))
                     .thenReturn(Optional.of(event1));
-            when(categoryRepository.findById(any())).thenReturn(Optional.of(updatedCategory));
+            when(categorySnapshot.findById(any())).thenReturn(Optional.of(updatedCategory));
             when(locationMapper.toLocation(any())).thenCallRealMethod();
-            when(locationRepository.findByLatAndLon(any(), any()))
-                    .thenReturn(Optional.empty());
-            when(locationRepository.save(any())).thenReturn(updatedLocation);
+            when(locationRepository.upsert(any(), any())).thenReturn(updatedLocation.getId());
             when(eventRepository.save(any())).thenReturn(updatedEvent1);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
             when(statsService.getViews(any())).thenReturn(views);
@@ -760,10 +847,9 @@ public class EventServiceTest {
 
             verify(userRepository, times(1)).findById(any());
             verify(eventRepository, times(1)).findByIdAndInitiatorId(any(), any());
-            verify(categoryRepository, times(1)).findById(anyLong());
+            verify(categorySnapshot, times(1)).findById(anyLong());
             verify(locationMapper, times(1)).toLocation(any());
-            verify(locationRepository, times(1)).findByLatAndLon(any(), any());
-            verify(locationRepository, times(1)).save(any());
+            verify(locationRepository, times(1)).upsert(any(), any());
             verify(eventRepository, times(1)).save(eventArgumentCaptor.capture());
             verify(statsService, times(1)).getConfirmedRequests(any());
             verify(statsService, times(1)).getViews(any());
@@ -823,38 +909,189 @@ public class EventServiceTest {
             String text = "text";
 
             when(eventRepository.findAllForPublic(any(), any(), any(),
-                    any(), any(), any(), any()))
-                    .thenReturn(List.of(event1));
+                    any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(eventShortView1));
             when(statsService.getViews(any())).thenReturn(views);
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(eventMapper.toEventShortDto(any(), any(), any())).thenReturn(eventShortDto1);
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
 
             List<EventShortDto> eventShortsDto = eventService.getEventsByPublic(text, List.of(event1.getCategory().getId()),
-                    false, event1.getCreatedOn(), event1.getCreatedOn().plusDays(5), true,
-                    EventSortType.EVENT_DATE, 0, 10, new MockHttpServletRequest());
+                    false, event1.getCreatedOn(), event1.getCreatedOn().plusDays(5), true, null, null, null,
+                    EventSortType.EVENT_DATE, 0, 10, null, new MockHttpServletRequest()).getEvents();
 
             assertEquals(1, eventShortsDto.size());
 
             assertEquals(eventShortDto1, eventShortsDto.get(0));
 
             verify(eventRepository, times(1))
-                    .findAllForPublic(any(), any(), any(), any(), any(), any(), any());
+                    .findAllForPublic(any(), any(), any(),
+                    any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
             verify(statsService, times(1)).getViews(any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(eventMapper, times(1)).toEventShortDto(any(), any(), any());
+            verify(eventMapper, times(1)).toEventShortDto(any(EventShortView.class), any(), any());
         }
 
         @Test
         public void findAllForPublicWhenErrorTimeRange() {
             RuntimeException exception = assertThrows(RuntimeException.class,
                     () -> eventService.getEventsByPublic("some text", List.of(event1.getCategory().getId()),
-                            false, event1.getCreatedOn(), event1.getCreatedOn().minusMinutes(5), true,
-                            EventSortType.EVENT_DATE, 0, 10, new MockHttpServletRequest()));
+                            false, event1.getCreatedOn(), event1.getCreatedOn().minusMinutes(5), true, null, null, null,
+                            EventSortType.EVENT_DATE, 0, 10, null, new MockHttpServletRequest()));
             assertEquals(String.format("Field: eventDate. Error: некорректные параметры временного " +
                             "интервала. Value: rangeStart = %s, rangeEnd = %s", event1.getCreatedOn(),
                     event1.getCreatedOn().minusMinutes(5)), exception.getMessage());
 
-            verify(eventRepository, never()).findAllForPublic(any(), any(), any(), any(), any(), any(), any());
+            verify(eventRepository, never()).findAllForPublic(any(), any(), any(),
+                    any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+        @Test
+        public void findAllForPublicWhenSearchAreaIncomplete() {
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByPublic(null, null, null, null, null, false, 55.75F, 37.61F, null,
+                            null, 0, 10, null, new MockHttpServletRequest()));
+            assertEquals("Field: radius. Error: для поиска рядом с точкой нужно указать lat, lon и radius. " +
+                    "Value: lat = 55.75, lon = 37.61, radius = null", exception.getMessage());
+
+            verify(eventRepository, never())
+                    .findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                            any());
+        }
+
+        @Test
+        public void findAllForPublicWhenCoordinatesInvalid() {
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByPublic(null, null, null, null, null, false, 95F, 37.61F, 10F,
+                            null, 0, 10, null, new MockHttpServletRequest()));
+            assertEquals("Field: lat, lon. Error: некорректные координаты. Value: lat = 95.0, lon = 37.61",
+                    exception.getMessage());
+        }
+
+        @Test
+        public void findAllForPublicWhenRadiusTooLarge() {
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByPublic(null, null, null, null, null, false, 55.75F, 37.61F, 5000F,
+                            null, 0, 10, null, new MockHttpServletRequest()));
+            assertEquals("Field: radius. Error: радиус должен быть больше 0 и не больше 1000 км. Value: 5000.0",
+                    exception.getMessage());
+
+            verify(eventRepository, never())
+                    .findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                            any());
+        }
+
+        @Test
+        public void findAllForPublicByTextReturnsOffsetCursor() {
+            when(eventRepository.findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(eventShortView1));
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
+
+            EventPage<EventShortDto> firstPage = eventService.getEventsByPublic("text", null, null, null, null,
+                    false, null, null, null, null, 0, 1, null, new MockHttpServletRequest());
+
+            assertEquals(EventCursor.offset(1), firstPage.getNextCursor());
+
+            eventService.getEventsByPublic("text", null, null, null, null, false, null, null, null, null, 0, 1,
+                    firstPage.getNextCursor(), new MockHttpServletRequest());
+
+            verify(eventRepository, times(1))
+                    .findAllForPublic(eq("text"), any(), any(), any(), any(), any(), any(), any(), any(), isNull(), isNull(), eq(0), eq(1));
+            verify(eventRepository, times(1))
+                    .findAllForPublic(eq("text"), any(), any(), any(), any(), any(), any(), any(), any(), isNull(), isNull(), eq(1), eq(1));
+        }
+
+        @Test
+        public void findAllForPublicWithoutTextReturnsKeysetCursor() {
+            when(eventRepository.findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(eventShortView1));
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
+
+            EventPage<EventShortDto> page = eventService.getEventsByPublic(null, null, null, null, null,
+                    false, null, null, null, null, 0, 1, EventCursor.afterId(7L), new MockHttpServletRequest());
+
+            assertEquals(EventCursor.afterId(eventShortView1.getId()), page.getNextCursor());
+
+            verify(eventRepository, times(1)).findAllForPublic(isNull(), any(), any(), any(), any(), any(), any(), any(), any(),
+                    isNull(), argThat(after -> after != null && after.getId() == 7L), eq(0), eq(1));
+        }
+
+        @Test
+        public void findAllForPublicSortedByEventDateReturnsEventDateCursor() {
+            when(eventRepository.findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(eventShortView1));
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
+
+            EventPage<EventShortDto> firstPage = eventService.getEventsByPublic("text", null, null, null, null,
+                    true, null, null, null, EventSortType.EVENT_DATE, 0, 1, null, new MockHttpServletRequest());
+
+            assertEquals(EventCursor.afterEventDate(eventShortView1.getId(), eventShortView1.getEventDate()),
+                    firstPage.getNextCursor());
+
+            eventService.getEventsByPublic("text", null, null, null, null, true, null, null, null,
+                    EventSortType.EVENT_DATE, 0, 1,
+                    firstPage.getNextCursor(), new MockHttpServletRequest());
+
+            verify(eventRepository, times(1)).findAllForPublic(eq("text"), any(), any(), any(), any(), eq(true),
+                    any(), any(), any(), eq(EventSortType.EVENT_DATE), argThat(after -> after != null
+                            && after.getId().equals(eventShortView1.getId())
+                            && after.getEventDate().equals(eventShortView1.getEventDate())), eq(0), eq(1));
+        }
+
+        @Test
+        public void findAllForPublicSortedByViewsReturnsViewsCursor() {
+            when(eventRepository.findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(List.of(eventShortView1));
+            when(eventMapper.toEventShortDto(any(EventShortView.class), any(), any())).thenReturn(eventShortDto1);
+
+            EventPage<EventShortDto> page = eventService.getEventsByPublic(null, null, null, null, null,
+                    false, null, null, null, EventSortType.VIEWS, 0, 1, null, new MockHttpServletRequest());
+
+            assertEquals(EventCursor.afterViews(eventShortView1.getId(), eventShortView1.getViews()),
+                    page.getNextCursor());
+
+            verify(eventMapper, times(1)).toEventShortDto(eq(eventShortView1), any(), eq(eventShortView1.getViews()));
+            verify(statsService, never()).getViews(any());
+        }
+
+        @Test
+        public void findAllForPublicWhenCursorDoesNotMatchSort() {
+            String cursor = EventCursor.afterEventDate(1L, LocalDateTime.now());
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByPublic(null, null, null, null, null, false, null, null, null,
+                            EventSortType.VIEWS, 0, 10, cursor, new MockHttpServletRequest()));
+            assertEquals(String.format("Field: cursor. Error: некорректный курсор. Value: %s", cursor),
+                    exception.getMessage());
+
+            verify(eventRepository, never())
+                    .findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void findAllForPublicByTextWhenCursorIsKeyset() {
+            String cursor = EventCursor.afterId(7L);
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByPublic("text", null, null, null, null, false, null, null, null,
+                            null, 0, 10, cursor, new MockHttpServletRequest()));
+            assertEquals(String.format("Field: cursor. Error: некорректный курсор. Value: %s", cursor),
+                    exception.getMessage());
+
+            verify(eventRepository, never())
+                    .findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        public void findAllForPublicWithoutTextWhenCursorIsOffset() {
+            String cursor = EventCursor.offset(10);
+
+            ValidationException exception = assertThrows(ValidationException.class,
+                    () -> eventService.getEventsByPublic(null, null, null, null, null, false, null, null, null,
+                            null, 0, 10, cursor, new MockHttpServletRequest()));
+            assertEquals(String.format("Field: cursor. Error: некорректный курсор. Value: %s", cursor),
+                    exception.getMessage());
+
+            verify(eventRepository, never())
+                    .findAllForPublic(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
         }
     }
 
@@ -876,6 +1113,7 @@ public class EventServiceTest {
             verify(statsService, times(1)).getViews(any());
             verify(statsService, times(1)).saveHit(any());
             verify(eventMapper, times(1)).toEventFullDto(any(), any(), any());
+            verify(eventRepository, never()).updateViews(anyLong(), anyLong());
         }
 
         @Test
@@ -926,37 +1164,6 @@ public class EventServiceTest {
         }
     }
 
-    @Nested
-    class GetEventsByIds {
-        @Test
-        public void getEventsByIds() {
-            when(eventRepository.findAllByIdIn(List.of(event1.getId(), event2.getId()))).thenReturn(List.of(event1, event2));
-
-            List<Event> result = eventService.getEventsByIds(List.of(event1.getId(), event2.getId()));
-
-            assertEquals(2, result.size());
-
-            Event resultEvent1 = result.get(0);
-            Event resultEvent2 = result.get(1);
-
-            assertEquals(event1, resultEvent1);
-            assertEquals(event2, resultEvent2);
-
-            verify(eventRepository, times(1)).findAllByIdIn(any());
-        }
-
-        @Test
-        public void getEventsByIdsWhenEmpty() {
-            when(eventRepository.findAllByIdIn(List.of(event1.getId(), event2.getId()))).thenReturn(List.of());
-
-            List<Event> result = eventService.getEventsByIds(List.of(event1.getId(), event2.getId()));
-
-            assertTrue(result.isEmpty());
-
-            verify(eventRepository, times(1)).findAllByIdIn(any());
-        }
-    }
-
     private void checkResults(Event event, Event result) {
         assertEquals(event.getId(), result.getId());
         assertEquals(event.getAnnotation(), result.getAnnotation());
@@ -0,0 +1,87 @@
+package ru.practicum.main_service.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.main_service.event.domain.repository.EventRepository;
+import ru.practicum.main_service.event.dto.EventShortView;
+import ru.practicum.main_service.event.enums.EventState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventViewsSyncTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private StatsService statsService;
+
+    private EventViewsSync eventViewsSync;
+
+    private final EventShortView event1 = view(1L, 10L);
+    private final EventShortView event2 = view(2L, 5L);
+    private final EventShortView event3 = view(3L, 0L);
+
+    @BeforeEach
+    public void beforeEach() {
+        eventViewsSync = new EventViewsSync(eventRepository, eventService, statsService, true, 2);
+    }
+
+    @Test
+    public void syncUpdatesOnlyGrownViewsBatchByBatch() {
+        when(eventRepository.findAllShortByStateAfter(EventState.PUBLISHED, 0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(event1, event2));
+        when(eventRepository.findAllShortByStateAfter(EventState.PUBLISHED, 2L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(event3));
+        when(statsService.getViews(List.of(event1, event2))).thenReturn(Map.of(1L, 10L, 2L, 8L));
+        when(statsService.getViews(List.of(event3))).thenReturn(Map.of(3L, 4L));
+
+        eventViewsSync.sync();
+
+        verify(eventService).updateViews(Map.of(2L, 8L));
+        verify(eventService).updateViews(Map.of(3L, 4L));
+    }
+
+    @Test
+    public void syncSkipsUpdateWhenNothingChanged() {
+        when(eventRepository.findAllShortByStateAfter(EventState.PUBLISHED, 0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(event1));
+        when(statsService.getViews(List.of(event1))).thenReturn(Map.of());
+
+        eventViewsSync.sync();
+
+        verify(eventService, never()).updateViews(any());
+    }
+
+    @Test
+    public void disabledSyncDoesNothing() {
+        eventViewsSync = new EventViewsSync(eventRepository, eventService, statsService, false, 2);
+
+        eventViewsSync.sync();
+
+        verifyNoInteractions(eventRepository, statsService, eventService);
+    }
+
+    private static EventShortView view(Long id, Long views) {
+        return EventShortView.builder()
+                .id(id)
+                .publishedOn(LocalDateTime.now().minusDays(1))
+                .views(views)
+                .build();
+    }
+}
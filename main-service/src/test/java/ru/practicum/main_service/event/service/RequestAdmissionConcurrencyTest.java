@@ -0,0 +1,148 @@
+package ru.practicum.main_service.event.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.main_service.category.domain.model.Category;
+import ru.practicum.main_service.category.domain.repository.CategoryRepository;
+import ru.practicum.main_service.event.domain.model.Event;
+import ru.practicum.main_service.event.domain.model.Location;
+import ru.practicum.main_service.event.domain.repository.EventRepository;
+import ru.practicum.main_service.event.domain.repository.LocationRepository;
+import ru.practicum.main_service.event.domain.repository.RequestRepository;
+import ru.practicum.main_service.event.enums.EventState;
+import ru.practicum.main_service.event.enums.RequestStatus;
+import ru.practicum.main_service.exception.ForbiddenException;
+import ru.practicum.main_service.user.domain.model.User;
+import ru.practicum.main_service.user.domain.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ewm-admission;LOCK_TIMEOUT=30000")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RequestAdmissionConcurrencyTest {
+    private static final int THREADS = 64;
+
+    private final RequestService requestService;
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final LocationRepository locationRepository;
+    private final EventRepository eventRepository;
+    private final RequestRepository requestRepository;
+
+    private User initiator;
+    private Category category;
+    private Location location;
+
+    @BeforeEach
+    public void beforeEach() {
+        initiator = userRepository.save(User.builder().name("initiator").email("initiator@yandex.ru").build());
+        category = categoryRepository.save(Category.builder().name("category").build());
+        location = locationRepository.save(Location.builder().lat(55.75F).lon(37.61F).build());
+    }
+
+    @Test
+    public void shouldNotOverbookUnderConcurrentRequests() throws InterruptedException {
+        int participantLimit = 100;
+        int requesters = 3000;
+        Event event = saveEvent(participantLimit);
+        List<User> users = saveUsers(requesters);
+
+        Outcome outcome = runConcurrently(requesters, i -> requestService.createEventRequest(users.get((int) i).getId(),
+                event.getId()).getId());
+
+        assertEquals(participantLimit, outcome.admitted.get());
+        assertEquals(requesters - participantLimit, outcome.rejected.get());
+        assertEquals(0, outcome.failed.get());
+        assertEquals(participantLimit, eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests());
+        assertEquals(participantLimit,
+                requestRepository.findParticipationRequestsByStatus(event.getId(), RequestStatus.CONFIRMED).size());
+    }
+
+    @Test
+    public void shouldAdmitSingleRequestPerUser() throws InterruptedException {
+        Event event = saveEvent(0);
+        User user = saveUsers(1).get(0);
+
+        Outcome outcome = runConcurrently(500, i -> requestService.createEventRequest(user.getId(),
+                event.getId()).getId());
+
+        assertEquals(1, outcome.admitted.get());
+        assertEquals(499, outcome.rejected.get());
+        assertEquals(0, outcome.failed.get());
+        assertEquals(1L, eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests());
+        assertEquals(1, requestRepository.findAllByEventId(event.getId()).size());
+    }
+
+    private Outcome runConcurrently(int tasks, LongFunction<Long> task) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < tasks; i++) {
+            long index = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.apply(index);
+                    outcome.admitted.incrementAndGet();
+                } catch (ForbiddenException | DataIntegrityViolationException e) {
+                    outcome.rejected.incrementAndGet();
+                } catch (Exception e) {
+                    outcome.failed.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+        return outcome;
+    }
+
+    private Event saveEvent(int participantLimit) {
+        return eventRepository.save(Event.builder()
+                .title("popular event")
+                .annotation("popular event annotation")
+                .description("popular event description")
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .category(category)
+                .location(location)
+                .paid(false)
+                .participantLimit(participantLimit)
+                .requestModeration(false)
+                .initiator(initiator)
+                .state(EventState.PUBLISHED)
+                .createdOn(LocalDateTime.now().minusDays(1))
+                .publishedOn(LocalDateTime.now().minusHours(1))
+                .build());
+    }
+
+    private List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder().name("user " + i).email("user" + i + "@yandex.ru").build());
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private static class Outcome {
+        private final AtomicInteger admitted = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+    }
+}
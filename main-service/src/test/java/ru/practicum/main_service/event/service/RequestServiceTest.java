@@ -67,8 +67,6 @@ public class RequestServiceTest {
     @Captor
     private ArgumentCaptor<Request> requestArgumentCaptor;
 
-    @Captor
-    private ArgumentCaptor<List<Request>> requestsArgumentCaptor;
     private final User user1 = User.builder()
             .id(1L)
             .name("test user1")
@@ -225,6 +223,7 @@ public class RequestServiceTest {
             ParticipationRequestDto participationRequestDto = requestService.createEventRequest(user2.getId(), event2.getId());
 
             assertEquals(participationRequestDto4, participationRequestDto);
+            verify(eventRepository, never()).addConfirmedRequestsWithinLimit(any(), anyLong());
 
             verify(userRepository, times(1)).findById(any());
             verify(eventRepository, times(1)).findById(any());
@@ -242,18 +241,33 @@ public class RequestServiceTest {
             assertNotNull(savedRequest.getCreated());
         }
 
+        @Test
+        public void createConfirmedWhenLimitTakenConcurrently() {
+            when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+            when(eventRepository.findById(event3.getId())).thenReturn(Optional.of(event3));
+            when(requestRepository.findByEventIdAndRequesterId(event3.getId(), user2.getId())).thenReturn(Optional.empty());
+            when(statsService.getConfirmedRequests(List.of(event3))).thenReturn(new HashMap<>());
+            when(eventRepository.addConfirmedRequestsWithinLimit(event3.getId(), 1)).thenReturn(0);
+
+            assertThrows(ForbiddenException.class, () -> requestService.createEventRequest(user2.getId(), event3.getId()));
+
+            verify(requestRepository, never()).save(any());
+        }
+
         @Test
         public void createConfirmed() {
             when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
             when(eventRepository.findById(event3.getId())).thenReturn(Optional.of(event3));
             when(requestRepository.findByEventIdAndRequesterId(event3.getId(), user2.getId())).thenReturn(Optional.empty());
             when(statsService.getConfirmedRequests(List.of(event3))).thenReturn(new HashMap<>());
+            when(eventRepository.addConfirmedRequestsWithinLimit(event3.getId(), 1)).thenReturn(1);
             when(requestRepository.save(any())).thenReturn(request2);
             when(requestMapper.toParticipationRequestDto(any())).thenCallRealMethod();
 
             ParticipationRequestDto participationRequestDto = requestService.createEventRequest(user2.getId(), event3.getId());
 
             assertEquals(participationRequestDto2, participationRequestDto);
+            verify(eventRepository, times(1)).addConfirmedRequestsWithinLimit(event3.getId(), 1);
 
             verify(userRepository, times(1)).findById(any());
             verify(eventRepository, times(1)).findById(any());
@@ -453,36 +467,30 @@ public class RequestServiceTest {
         @Test
         public void editEvent() {
             when(eventRepository.findById(any())).thenReturn(Optional.of(event2));
-            when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
-                    .thenReturn(List.of(request4));
-            when(requestRepository.saveAll(any())).thenReturn(List.of(request4));
-            when(requestMapper.toParticipationRequestDto(any())).thenCallRealMethod();
+            when(requestRepository.findParticipationRequests(event2.getId(),
+                    eventRequestStatusUpdateRequest.getRequestIds())).thenReturn(List.of(toDto(request4)));
+            when(requestRepository.updateStatus(List.of(request4.getId()), RequestStatus.PENDING,
+                    RequestStatus.REJECTED)).thenReturn(1);
 
             EventRequestStatusUpdateResult result = requestService.editEventRequestsByEventOwner(user1.getId(),
                     event2.getId(), eventRequestStatusUpdateRequest);
 
+            assertTrue(result.getConfirmedRequests().isEmpty());
             assertEquals(1, result.getRejectedRequests().size());
 
             ParticipationRequestDto participationRequestDto = result.getRejectedRequests().get(0);
 
             assertEquals(request4.getId(), participationRequestDto.getId());
+            assertEquals(request4.getRequester().getId(), participationRequestDto.getRequester());
+            assertEquals(request4.getEvent().getId(), participationRequestDto.getEvent());
+            assertEquals(request4.getCreated(), participationRequestDto.getCreated());
+            assertEquals(RequestStatus.REJECTED, participationRequestDto.getStatus());
 
             verify(eventRepository, times(1)).findById(any());
-            verify(requestRepository, times(1)).findAllByIdIn(any());
-            verify(requestRepository, times(1)).saveAll(requestsArgumentCaptor.capture());
-            verify(requestMapper, times(1)).toParticipationRequestDto(any());
-
-            List<Request> savedRequests = requestsArgumentCaptor.getValue();
-
-            assertEquals(1, savedRequests.size());
-
-            Request savedRequest1 = savedRequests.get(0);
-
-            assertEquals(request4.getId(), savedRequest1.getId());
-            assertEquals(request4.getRequester(), savedRequest1.getRequester());
-            assertEquals(request4.getEvent().getId(), savedRequest1.getEvent().getId());
-            assertEquals(request4.getCreated(), savedRequest1.getCreated());
-            assertEquals(RequestStatus.REJECTED, savedRequest1.getStatus());
+            verify(requestRepository, times(1)).findParticipationRequests(any(), any());
+            verify(requestRepository, times(1)).updateStatus(any(), any(), any());
+            verify(requestRepository, never()).saveAll(any());
+            verify(requestMapper, never()).toParticipationRequestDto(any());
         }
 
         @Test
@@ -491,14 +499,16 @@ public class RequestServiceTest {
             eventRequestStatusUpdateRequest.setStatus(RequestStatusAction.CONFIRMED);
 
             when(eventRepository.findById(any())).thenReturn(Optional.of(event2));
-            when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
-                    .thenReturn(List.of(request4));
+            when(requestRepository.findParticipationRequests(event2.getId(),
+                    eventRequestStatusUpdateRequest.getRequestIds())).thenReturn(List.of(toDto(request4)));
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
-            when(requestRepository.saveAll(List.of(request4))).thenReturn(List.of(request4));
-            when(requestRepository.findAllByEventIdAndStatus(event2.getId(), RequestStatus.PENDING))
-                    .thenReturn(List.of(request3));
-            when(requestRepository.saveAll(List.of(request3))).thenReturn(List.of(request3));
-            when(requestMapper.toParticipationRequestDto(any())).thenCallRealMethod();
+            when(eventRepository.addConfirmedRequestsWithinLimit(event2.getId(), 1)).thenReturn(1);
+            when(requestRepository.updateStatus(List.of(request4.getId()), RequestStatus.PENDING,
+                    RequestStatus.CONFIRMED)).thenReturn(1);
+            when(requestRepository.findParticipationRequestsByStatus(event2.getId(), RequestStatus.PENDING))
+                    .thenReturn(List.of(toDto(request3)));
+            when(requestRepository.updateStatus(List.of(request3.getId()), RequestStatus.PENDING,
+                    RequestStatus.REJECTED)).thenReturn(1);
 
             EventRequestStatusUpdateResult result = requestService.editEventRequestsByEventOwner(user1.getId(),
                     event2.getId(), eventRequestStatusUpdateRequest);
@@ -510,39 +520,33 @@ public class RequestServiceTest {
             ParticipationRequestDto rejectedRequestsDto = result.getRejectedRequests().get(0);
 
             assertEquals(request4.getId(), confirmedRequestsDto.getId());
+            assertEquals(RequestStatus.CONFIRMED, confirmedRequestsDto.getStatus());
             assertEquals(request3.getId(), rejectedRequestsDto.getId());
+            assertEquals(RequestStatus.REJECTED, rejectedRequestsDto.getStatus());
 
             verify(eventRepository, times(1)).findById(any());
-            verify(requestRepository, times(1)).findAllByIdIn(any());
+            verify(requestRepository, times(1)).findParticipationRequests(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(requestRepository, times(2)).saveAll(requestsArgumentCaptor.capture());
-            verify(requestRepository, times(1)).findAllByEventIdAndStatus(any(), any());
-            verify(requestMapper, times(2)).toParticipationRequestDto(any());
-
-            List<List<Request>> savedRequests = requestsArgumentCaptor.getAllValues();
-
-            assertEquals(2, savedRequests.size());
-
-            List<Request> savedRequestsFirst = savedRequests.get(0);
-            List<Request> savedRequestsSecond = savedRequests.get(1);
-
-            assertEquals(1, savedRequestsFirst.size());
-            assertEquals(1, savedRequestsSecond.size());
+            verify(eventRepository, times(1)).addConfirmedRequestsWithinLimit(event2.getId(), 1);
+            verify(requestRepository, times(1)).findParticipationRequestsByStatus(any(), any());
+            verify(requestRepository, times(2)).updateStatus(any(), any(), any());
+            verify(requestRepository, never()).saveAll(any());
+        }
 
-            Request savedRequestFirst1 = savedRequestsFirst.get(0);
-            Request savedRequestSecond1 = savedRequestsSecond.get(0);
+        @Test
+        public void editEventWhenRequestChangedConcurrently() {
+            when(eventRepository.findById(any())).thenReturn(Optional.of(event2));
+            when(requestRepository.findParticipationRequests(event2.getId(),
+                    eventRequestStatusUpdateRequest.getRequestIds())).thenReturn(List.of(toDto(request4)));
+            when(requestRepository.updateStatus(List.of(request4.getId()), RequestStatus.PENDING,
+                    RequestStatus.REJECTED)).thenReturn(0);
 
-            assertEquals(request4.getId(), savedRequestFirst1.getId());
-            assertEquals(request4.getRequester(), savedRequestFirst1.getRequester());
-            assertEquals(request4.getEvent().getId(), savedRequestFirst1.getEvent().getId());
-            assertEquals(request4.getCreated(), savedRequestFirst1.getCreated());
-            assertEquals(RequestStatus.CONFIRMED, savedRequestFirst1.getStatus());
+            ForbiddenException exception = assertThrows(ForbiddenException.class,
+                    () -> requestService.editEventRequestsByEventOwner(user1.getId(), event2.getId(),
+                            eventRequestStatusUpdateRequest));
+            assertEquals("Изменять можно только заявки, находящиеся в ожидании.", exception.getMessage());
 
-            assertEquals(request3.getId(), savedRequestSecond1.getId());
-            assertEquals(request3.getRequester(), savedRequestSecond1.getRequester());
-            assertEquals(request3.getEvent().getId(), savedRequestSecond1.getEvent().getId());
-            assertEquals(request3.getCreated(), savedRequestSecond1.getCreated());
-            assertEquals(RequestStatus.REJECTED, savedRequestSecond1.getStatus());
+            verify(requestRepository, times(1)).updateStatus(any(), any(), any());
         }
 
         @Test
@@ -556,13 +560,13 @@ public class RequestServiceTest {
 
 
             verify(eventRepository, times(1)).findById(any());
-            verify(requestRepository, never()).saveAll(any());
+            verify(requestRepository, never()).updateStatus(any(), any(), any());
         }
 
         @Test
         public void editEventWhenRequestsNotFound() {
             when(eventRepository.findById(any())).thenReturn(Optional.of(event2));
-            when(requestRepository.findAllByIdIn(any())).thenReturn(List.of());
+            when(requestRepository.findParticipationRequests(any(), any())).thenReturn(List.of());
 
             NotFoundException exception = assertThrows(NotFoundException.class,
                     () -> requestService.editEventRequestsByEventOwner(user1.getId(), event2.getId(),
@@ -570,15 +574,15 @@ public class RequestServiceTest {
             assertEquals("Часть запросы на участие не найдено.", exception.getMessage());
 
             verify(eventRepository, times(1)).findById(any());
-            verify(requestRepository, times(1)).findAllByIdIn(any());
-            verify(requestRepository, never()).saveAll(any());
+            verify(requestRepository, times(1)).findParticipationRequests(any(), any());
+            verify(requestRepository, never()).updateStatus(any(), any(), any());
         }
 
         @Test
         public void editEventWhenRequestsStatusNotPending() {
             when(eventRepository.findById(any())).thenReturn(Optional.of(event2));
-            when(requestRepository.findAllByIdIn(eventRequestStatusUpdateRequest.getRequestIds()))
-                    .thenReturn(List.of(request2));
+            when(requestRepository.findParticipationRequests(event2.getId(),
+                    eventRequestStatusUpdateRequest.getRequestIds())).thenReturn(List.of(toDto(request2)));
 
             ForbiddenException exception = assertThrows(ForbiddenException.class,
                     () -> requestService.editEventRequestsByEventOwner(user1.getId(), event2.getId(),
@@ -586,8 +590,8 @@ public class RequestServiceTest {
             assertEquals("Изменять можно только заявки, находящиеся в ожидании.", exception.getMessage());
 
             verify(eventRepository, times(1)).findById(any());
-            verify(requestRepository, times(1)).findAllByIdIn(any());
-            verify(requestRepository, never()).saveAll(any());
+            verify(requestRepository, times(1)).findParticipationRequests(any(), any());
+            verify(requestRepository, never()).updateStatus(any(), any(), any());
         }
 
         @Test
@@ -596,8 +600,8 @@ public class RequestServiceTest {
             eventRequestStatusUpdateRequest.setStatus(RequestStatusAction.CONFIRMED);
 
             when(eventRepository.findById(any())).thenReturn(Optional.of(event2));
-            when(requestRepository.findAllByIdIn(any()))
-                    .thenReturn(List.of(request4));
+            when(requestRepository.findParticipationRequests(any(), any()))
+                    .thenReturn(List.of(toDto(request4)));
             when(statsService.getConfirmedRequests(any())).thenReturn(confirmedRequests);
 
             ForbiddenException exception = assertThrows(ForbiddenException.class,
@@ -607,9 +611,19 @@ public class RequestServiceTest {
                     event2.getParticipantLimit()), exception.getMessage());
 
             verify(eventRepository, times(1)).findById(any());
-            verify(requestRepository, times(1)).findAllByIdIn(any());
+            verify(requestRepository, times(1)).findParticipationRequests(any(), any());
             verify(statsService, times(1)).getConfirmedRequests(any());
-            verify(requestRepository, never()).saveAll(any());
+            verify(requestRepository, never()).updateStatus(any(), any(), any());
+        }
+
+        private ParticipationRequestDto toDto(Request request) {
+            return ParticipationRequestDto.builder()
+                    .id(request.getId())
+                    .event(request.getEvent().getId())
+                    .requester(request.getRequester().getId())
+                    .created(request.getCreated())
+                    .status(request.getStatus())
+                    .build();
         }
     }
 }
@@ -0,0 +1,77 @@
+package ru.practicum.main_service.event.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.main_service.exception.StatsUnavailableException;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatsCircuitBreakerTest {
+    private final StatsCircuitBreaker statsCircuitBreaker =
+            new StatsCircuitBreaker(null, 200, 50, 2, 2, 60000, 1, 2);
+
+    @AfterEach
+    public void afterEach() {
+        statsCircuitBreaker.stop();
+    }
+
+    @Test
+    public void shouldReturnValue() {
+        assertEquals(42, statsCircuitBreaker.call(() -> 42));
+        assertEquals(CircuitBreaker.State.CLOSED, statsCircuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldFailWhenTimeBudgetIsExceeded() {
+        StatsUnavailableException exception = assertThrows(StatsUnavailableException.class,
+                () -> statsCircuitBreaker.call(() -> {
+                    try {
+                        Thread.sleep(2000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                }));
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    public void shouldOpenAfterFailuresAndSkipCalls() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(StatsUnavailableException.class, () -> statsCircuitBreaker.call(() -> {
+                calls.incrementAndGet();
+                throw new ResourceAccessException("down");
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, statsCircuitBreaker.getState());
+        assertThrows(StatsUnavailableException.class, () -> statsCircuitBreaker.call(calls::incrementAndGet));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void shouldStayClosedAfterInvalidArguments() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(StatsUnavailableException.class, () -> statsCircuitBreaker.call(() -> {
+                calls.incrementAndGet();
+                throw new IllegalArgumentException("Недопустимый временной промежуток.");
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, statsCircuitBreaker.getState());
+        assertEquals(42, statsCircuitBreaker.call(() -> 42));
+        assertEquals(2, calls.get());
+    }
+}
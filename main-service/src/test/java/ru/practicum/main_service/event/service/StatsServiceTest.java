@@ -1,19 +1,21 @@
 package ru.practicum.main_service.event.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
 import ru.practicum.main_service.Utils;
 import ru.practicum.main_service.event.domain.model.Event;
-import ru.practicum.main_service.event.domain.repository.RequestRepository;
-import ru.practicum.main_service.event.dto.RequestStats;
 import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.statsclient.HitReporter;
 import ru.practicum.statsclient.StatsClient;
 
 import java.time.LocalDateTime;
@@ -23,6 +25,8 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -34,7 +38,13 @@ public class StatsServiceTest {
     private StatsClient statsClient;
 
     @Mock
-    private RequestRepository requestRepository;
+    private HitReporter hitReporter;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Spy
+    private StatsCircuitBreaker statsCircuitBreaker = new StatsCircuitBreaker(null, 1000, 50, 10, 10, 10000, 1, 2);
 
     @InjectMocks
     private StatsService statsService;
@@ -61,14 +71,6 @@ public class StatsServiceTest {
             .createdOn(LocalDateTime.now().minusDays(1))
             .publishedOn(null)
             .build();
-    private final RequestStats requestStats1 = RequestStats.builder()
-            .eventId(1L)
-            .confirmedRequests(40L)
-            .build();
-    private final RequestStats requestStats2 = RequestStats.builder()
-            .eventId(2L)
-            .confirmedRequests(16L)
-            .build();
 
     @Nested
     class AddHit {
@@ -76,7 +78,18 @@ public class StatsServiceTest {
         public void shouldAdd() {
             statsService.saveHit(new MockHttpServletRequest());
 
-            verify(statsClient, times(1)).saveHit(any(), any(), any(), any());
+            verify(hitReporter, times(1)).report(any(), any(), any(), any());
+            verify(statsClient, never()).saveHit(any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldNotFailWhenStatsUnavailable() {
+            doThrow(new ResourceAccessException("Connection refused"))
+                    .when(hitReporter).report(any(), any(), any(), any());
+
+            statsService.saveHit(new MockHttpServletRequest());
+
+            verify(hitReporter, times(1)).report(any(), any(), any(), any());
         }
     }
 
@@ -84,8 +97,8 @@ public class StatsServiceTest {
     class GetStats {
         @Test
         public void shouldGet() {
-            when(statsClient.getAllStats(startDate, endDate, List.of("/event/1", "/event/2"), unique))
-                    .thenReturn(new ResponseEntity<>(List.of(viewStats1, viewStats2), HttpStatus.OK));
+            when(statsClient.getViewStats(startDate, endDate, List.of("/event/1", "/event/2"), unique))
+                    .thenReturn(List.of(viewStats1, viewStats2));
 
             List<ViewStats> viewStatsResponse = statsService.getAllStats(startDate, endDate, List.of("/event/1", "/event/2"), unique);
 
@@ -97,7 +110,14 @@ public class StatsServiceTest {
             assertEquals(viewStats1, viewStatsResponse1);
             assertEquals(viewStats2, viewStatsResponse2);
 
-            verify(statsClient, times(1)).getAllStats(any(), any(), any(), any());
+            verify(statsClient, times(1)).getViewStats(any(), any(), any(), any());
+        }
+
+        @Test
+        public void shouldGetEmptyWhenStatsFail() {
+            when(statsClient.getViewStats(any(), any(), any(), any())).thenThrow(new IllegalStateException("down"));
+
+            assertTrue(statsService.getAllStats(startDate, endDate, List.of("/event/1"), unique).isEmpty());
         }
     }
 
@@ -105,9 +125,8 @@ public class StatsServiceTest {
     class GetViews {
         @Test
         public void shouldGet() {
-            when(statsClient.getAllStats(any(), any(),
-                    any(), any()))
-                    .thenReturn(new ResponseEntity<>(List.of(viewStats1, viewStats2), HttpStatus.OK));
+            when(statsClient.getHitsByIds(any(), any(), any(), any(), anyBoolean()))
+                    .thenReturn(Map.of(event1.getId(), viewStats1.getHits(), event2.getId(), viewStats2.getHits()));
 
             Map<Long, Long> views = statsService.getViews(List.of(event1, event2, event3));
 
@@ -115,7 +134,54 @@ public class StatsServiceTest {
             assertEquals(viewStats1.getHits(), views.get(event1.getId()));
             assertEquals(viewStats2.getHits(), views.get(event2.getId()));
 
-            verify(statsClient, times(1)).getAllStats(any(), any(), any(), any());
+            verify(statsClient, times(1)).getHitsByIds(any(), any(), any(), any(), anyBoolean());
+        }
+
+        @Test
+        public void shouldGetFromCache() {
+            ReflectionTestUtils.setField(statsService, "viewsCacheEnabled", true);
+            ReflectionTestUtils.setField(statsService, "viewsRefreshAfterMs", 60000L);
+            ReflectionTestUtils.setField(statsService, "viewsExpireAfterMs", 120000L);
+            ReflectionTestUtils.setField(statsService, "viewsMaximumSize", 100L);
+            statsService.initViewsCache();
+            when(statsClient.getHitsByIds(any(), any(), any(), any(), anyBoolean()))
+                    .thenReturn(Map.of(event1.getId(), viewStats1.getHits(), event2.getId(), viewStats2.getHits()));
+
+            Map<Long, Long> views = statsService.getViews(List.of(event1, event2, event3));
+            Map<Long, Long> cachedViews = statsService.getViews(List.of(event2, event1));
+
+            assertEquals(views, cachedViews);
+            assertEquals(viewStats1.getHits(), cachedViews.get(event1.getId()));
+            assertEquals(viewStats2.getHits(), cachedViews.get(event2.getId()));
+
+            verify(statsClient, times(1)).getHitsByIds(any(), any(), any(), any(), anyBoolean());
+        }
+
+        @Test
+        public void shouldGetZeroWhenStatsFail() {
+            when(statsClient.getHitsByIds(any(), any(), any(), any(), anyBoolean()))
+                    .thenThrow(new IllegalStateException("down"));
+
+            Map<Long, Long> views = statsService.getViews(List.of(event1, event2, event3));
+
+            assertEquals(Map.of(event1.getId(), 0L, event2.getId(), 0L), views);
+        }
+
+        @Test
+        public void shouldGetCachedWhenStatsFail() {
+            ReflectionTestUtils.setField(statsService, "viewsCacheEnabled", true);
+            ReflectionTestUtils.setField(statsService, "viewsRefreshAfterMs", 60000L);
+            ReflectionTestUtils.setField(statsService, "viewsExpireAfterMs", 120000L);
+            ReflectionTestUtils.setField(statsService, "viewsMaximumSize", 100L);
+            statsService.initViewsCache();
+            when(statsClient.getHitsByIds(any(), any(), any(), any(), anyBoolean()))
+                    .thenReturn(Map.of(event1.getId(), viewStats1.getHits()))
+                    .thenThrow(new IllegalStateException("down"));
+
+            statsService.getViews(List.of(event1));
+            Map<Long, Long> views = statsService.getViews(List.of(event1, event2));
+
+            assertEquals(Map.of(event1.getId(), viewStats1.getHits(), event2.getId(), 0L), views);
         }
 
         @Test
@@ -124,7 +190,7 @@ public class StatsServiceTest {
 
             assertTrue(views.values().isEmpty());
 
-            verify(statsClient, never()).getAllStats(any(), any(), any(), any());
+            verify(statsClient, never()).getHitsByIds(any(), any(), any(), any(), anyBoolean());
         }
     }
 
@@ -132,16 +198,15 @@ public class StatsServiceTest {
     class GetConfirmedRequests {
         @Test
         public void shouldGet() {
-            when(requestRepository.getConfirmedRequests(List.of(event1.getId(), event2.getId())))
-                    .thenReturn(List.of(requestStats1, requestStats2));
+            event1.setConfirmedRequests(40L);
+            event2.setConfirmedRequests(16L);
+            event3.setConfirmedRequests(7L);
 
             Map<Long, Long> confirmedRequests = statsService.getConfirmedRequests(List.of(event1, event2, event3));
 
             assertEquals(2, confirmedRequests.values().size());
-            assertEquals(requestStats1.getConfirmedRequests(), confirmedRequests.get(event1.getId()));
-            assertEquals(requestStats2.getConfirmedRequests(), confirmedRequests.get(event2.getId()));
-
-            verify(requestRepository, times(1)).getConfirmedRequests(any());
+            assertEquals(40L, confirmedRequests.get(event1.getId()));
+            assertEquals(16L, confirmedRequests.get(event2.getId()));
         }
 
         @Test
@@ -150,7 +215,7 @@ public class StatsServiceTest {
 
             assertTrue(confirmedRequests.values().isEmpty());
 
-            verify(statsClient, never()).getAllStats(any(), any(), any(), any());
+            verify(statsClient, never()).getViewStats(any(), any(), any(), any());
         }
     }
 }
@@ -11,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.main_service.compilation.service.CompilationCache;
 import ru.practicum.main_service.exception.NotFoundException;
 import ru.practicum.main_service.user.domain.model.User;
 import ru.practicum.main_service.user.domain.repository.UserRepository;
@@ -40,6 +41,9 @@ public class UserServiceTest {
     @Mock
     private UserMapperImpl userMapper;
 
+    @Mock
+    private CompilationCache compilationCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -0,0 +1,77 @@
+package ru.practicum.stats.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BenchmarkComparison {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Использование: BenchmarkComparison <baseline.json> <candidate.json> [порог, %]");
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+        Map<String, JsonNode> baseline = read(args[0]);
+        Map<String, JsonNode> candidate = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Бенчмарк", "Было", "Стало", "Разница");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue().get("primaryMetric");
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", after.get("score").asDouble(), "новый");
+                continue;
+            }
+            double beforeScore = before.get("primaryMetric").get("score").asDouble();
+            double beforeError = before.get("primaryMetric").get("scoreError").asDouble();
+            double afterScore = after.get("score").asDouble();
+            double afterError = after.get("scoreError").asDouble();
+            double delta = (afterScore - beforeScore) / beforeScore * 100;
+            boolean lowerIsBetter = !entry.getValue().get("mode").asText().equals("thrpt");
+            boolean worse = lowerIsBetter ? delta > threshold : delta < -threshold;
+            boolean significant = Math.abs(afterScore - beforeScore) > beforeError + afterError;
+            String mark = worse && significant ? "  РЕГРЕССИЯ" : "";
+            if (!mark.isEmpty()) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), beforeScore, afterScore, delta, mark);
+        }
+        System.out.printf("Регрессий больше %.1f%%: %d%n", threshold, regressions);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> read(String path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : MAPPER.readTree(new File(path))) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                .replace("ru.practicum.stats.bench.", ""));
+        JsonNode params = result.get("params");
+        if (params != null) {
+            Map<String, String> sorted = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                sorted.put(field.getKey(), field.getValue().asText());
+            }
+            key.append(sorted);
+        }
+        return key.toString();
+    }
+}
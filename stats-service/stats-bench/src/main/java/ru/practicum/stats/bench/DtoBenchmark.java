@@ -0,0 +1,114 @@
+package ru.practicum.stats.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.stats.dto.EndpointHit;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.mapper.StatsMapper;
+import ru.practicum.stats.server.mapper.StatsMapperImpl;
+import ru.practicum.stats.server.model.StatsEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoBenchmark {
+    private static final TypeReference<List<EndpointHit>> HIT_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<ViewStats>> VIEW_STATS_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private final StatsMapper statsMapper = new StatsMapperImpl();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<EndpointHit> hits;
+    private StatsEntity entity;
+    private String[] apps;
+    private String[] uris;
+    private long[] counts;
+    private String hitsJson;
+    private String viewStatsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+        hits = new ArrayList<>(size);
+        apps = new String[size];
+        uris = new String[size];
+        counts = new long[size];
+        List<ViewStats> viewStats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hits.add(EndpointHit.builder()
+                    .app(HitDataGenerator.APP)
+                    .uri(HitDataGenerator.URI_PREFIX + i)
+                    .ip("10.0." + (i >> 8 & 255) + "." + (i & 255))
+                    .timestamp(timestamp.plusSeconds(i))
+                    .build());
+            apps[i] = HitDataGenerator.APP;
+            uris[i] = HitDataGenerator.URI_PREFIX + i;
+            counts[i] = size - i;
+            viewStats.add(new ViewStats(apps[i], uris[i], counts[i]));
+        }
+        entity = statsMapper.toEntity(hits.get(0));
+        hitsJson = objectMapper.writeValueAsString(hits);
+        viewStatsJson = objectMapper.writeValueAsString(viewStats);
+    }
+
+    @Benchmark
+    public List<StatsEntity> mapHitsToEntities() {
+        return statsMapper.toEntities(hits);
+    }
+
+    @Benchmark
+    public EndpointHit mapEntityToHit() {
+        return statsMapper.toEndpointHit(entity);
+    }
+
+    @Benchmark
+    public List<ViewStats> constructViewStats() {
+        List<ViewStats> viewStats = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            viewStats.add(new ViewStats(apps[i], uris[i], counts[i]));
+        }
+        return viewStats;
+    }
+
+    @Benchmark
+    public String serializeHits() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(hits);
+    }
+
+    @Benchmark
+    public List<EndpointHit> deserializeHits() throws JsonProcessingException {
+        return objectMapper.readValue(hitsJson, HIT_LIST);
+    }
+
+    @Benchmark
+    public List<ViewStats> deserializeViewStats() throws JsonProcessingException {
+        return objectMapper.readValue(viewStatsJson, VIEW_STATS_LIST);
+    }
+}
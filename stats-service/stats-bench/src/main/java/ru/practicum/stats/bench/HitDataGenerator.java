@@ -0,0 +1,96 @@
+package ru.practicum.stats.bench;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Slf4j
+public class HitDataGenerator {
+    public static final String APP = "ewm-main-service";
+    public static final String URI_PREFIX = "/events/";
+    public static final String LAST_HIT = "2024-01-01 00:00:00";
+    public static final int SPAN_DAYS = 90;
+
+    private static final int CHUNK = 1_000_000;
+    private static final String INSERT = "INSERT INTO stats (id, app, uri, ip, stats_time) " +
+            "SELECT X, '" + APP + "', " +
+            "CONCAT('" + URI_PREFIX + "', MOD(X * 7919, ?)), " +
+            "CONCAT('10.', MOD(X * 31, ?) / 65536, '.', MOD(MOD(X * 31, ?) / 256, 256), '.', MOD(X * 31, 256)), " +
+            "DATEADD(SECOND, -MOD(X * 104729, ?), TIMESTAMP '" + LAST_HIT + "') " +
+            "FROM SYSTEM_RANGE(?, ?)";
+
+    private final int uriCount;
+    private final int ipCount;
+
+    public HitDataGenerator(int uriCount, int ipCount) {
+        this.uriCount = uriCount;
+        this.ipCount = ipCount;
+    }
+
+    public long generate(DataSource dataSource, long hits) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return generate(connection, hits);
+        }
+    }
+
+    public long generate(Connection connection, long hits) throws SQLException {
+        long existing = count(connection);
+        if (existing >= hits) {
+            log.info("В базе уже есть {} обращений, генерация не нужна", existing);
+            return existing;
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (long from = existing + 1; from <= hits; from += CHUNK) {
+                long to = Math.min(hits, from + CHUNK - 1);
+                statement.setInt(1, uriCount);
+                statement.setInt(2, ipCount);
+                statement.setInt(3, ipCount);
+                statement.setLong(4, SPAN_DAYS * 24L * 3600L);
+                statement.setLong(5, from);
+                statement.setLong(6, to);
+                statement.executeUpdate();
+                connection.commit();
+                log.info("Сгенерировано обращений: {} из {}", to, hits);
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER SEQUENCE stats_seq RESTART WITH " + (hits + 1));
+        }
+        return hits;
+    }
+
+    private long count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM stats")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 2) {
+            System.out.println("Использование: HitDataGenerator <jdbc-url H2> <количество обращений> " +
+                    "[количество uri] [количество ip]");
+            return;
+        }
+        long hits = Long.parseLong(args[1]);
+        int uriCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int ipCount = args.length > 3 ? Integer.parseInt(args[3]) : (int) Math.min(1_000_000, Math.max(100, hits / 10));
+        try (Connection connection = DriverManager.getConnection(args[0], "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            new HitDataGenerator(uriCount, ipCount).generate(connection, hits);
+        }
+    }
+}
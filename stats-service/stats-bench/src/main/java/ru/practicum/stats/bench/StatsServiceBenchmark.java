@@ -0,0 +1,119 @@
+package ru.practicum.stats.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.StatsServiceApplication;
+import ru.practicum.stats.server.service.StatsRollupService;
+import ru.practicum.stats.server.service.StatsService;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsServiceBenchmark {
+    private static final int URI_COUNT = 10_000;
+
+    @Param({"10000", "1000000"})
+    private long hits;
+
+    @Param({"false", "true"})
+    private boolean rollup;
+
+    @Param({"false", "true"})
+    private boolean unique;
+
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private List<String> uris;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path database = Path.of(System.getProperty("stats.bench.data", "target/bench-data"))
+                .resolve("stats-" + hits).toAbsolutePath();
+        context = new SpringApplicationBuilder(StatsServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:file:" + database,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.sql.init.platform=h2",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--stats.rollup.enabled=" + rollup,
+                        "--stats.rollup.batch-size=100000",
+                        "--stats.rollup.interval-ms=86400000",
+                        "--logging.level.root=WARN",
+                        "--logging.level.ru.practicum=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.springframework.orm.jpa=WARN",
+                        "--logging.level.org.springframework.transaction=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN");
+
+        int ipCount = (int) Math.min(1_000_000, Math.max(100, hits / 10));
+        new HitDataGenerator(URI_COUNT, ipCount).generate(context.getBean(DataSource.class), hits);
+        if (rollup) {
+            rollUpAll();
+        }
+
+        statsService = context.getBean(StatsService.class);
+        end = LocalDateTime.parse(HitDataGenerator.LAST_HIT, Utils.DATE_FORMATTER).minusHours(5).plusSeconds(17);
+        start = end.minusDays(HitDataGenerator.SPAN_DAYS / 2).minusMinutes(42);
+        uris = IntStream.range(0, 20)
+                .mapToObj(i -> HitDataGenerator.URI_PREFIX + (i * 37))
+                .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ViewStats> allStats() {
+        return statsService.getAllStats(start, end, null, unique);
+    }
+
+    @Benchmark
+    public List<ViewStats> statsByUris() {
+        return statsService.getAllStats(start, end, uris, unique);
+    }
+
+    private void rollUpAll() {
+        StatsRollupService statsRollupService = context.getBean(StatsRollupService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats WHERE rollup_batch IS NULL", Long.class);
+        while (pending != null && pending > 0) {
+            statsRollupService.rollup();
+            pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats WHERE rollup_batch IS NULL", Long.class);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.statsclient;
 
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
@@ -24,6 +25,23 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, parameters, null);
     }
 
+    protected <T, R> R post(String path, T body, ParameterizedTypeReference<R> responseType) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
+        return rest.exchange(path, HttpMethod.POST, requestEntity, responseType).getBody();
+    }
+
+    protected <R> R get(String path, @Nullable Map<String, Object> parameters,
+                        ParameterizedTypeReference<R> responseType) {
+        HttpEntity<Void> requestEntity = new HttpEntity<>(defaultHeaders());
+        ResponseEntity<R> response;
+        if (parameters != null) {
+            response = rest.exchange(path, HttpMethod.GET, requestEntity, responseType, parameters);
+        } else {
+            response = rest.exchange(path, HttpMethod.GET, requestEntity, responseType);
+        }
+        return response.getBody();
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path,
                                                           @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
@@ -0,0 +1,197 @@
+package ru.practicum.statsclient;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.EndpointHit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class HitReporter {
+    private final StatsClient statsClient;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final boolean async;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long offerTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<EndpointHit> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running;
+    private Thread sender;
+
+    public HitReporter(StatsClient statsClient,
+                       ObjectProvider<MeterRegistry> meterRegistry,
+                       @Value("${stats-client.async.enabled:false}") boolean async,
+                       @Value("${stats-client.async.queue-capacity:10000}") int queueCapacity,
+                       @Value("${stats-client.async.batch-size:100}") int batchSize,
+                       @Value("${stats-client.async.linger-ms:200}") long lingerMs,
+                       @Value("${stats-client.async.offer-timeout-ms:50}") long offerTimeoutMs,
+                       @Value("${stats-client.async.overflow-policy:DROP_NEWEST}") OverflowPolicy overflowPolicy) {
+        this.statsClient = statsClient;
+        this.meterRegistry = meterRegistry;
+        this.async = async;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.ifAvailable(this::registerMetrics);
+        if (!async) {
+            return;
+        }
+        running = true;
+        sender = new Thread(this::sendLoop, "stats-hit-sender");
+        sender.setDaemon(true);
+        sender.start();
+        log.info("Асинхронная отправка обращений включена, политика переполнения {}", overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (sender == null) {
+            return;
+        }
+        running = false;
+        sender.join(lingerMs * 2 + 1000);
+
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    public void report(String appName, String uri, String ip, LocalDateTime timestamp) {
+        EndpointHit endpointHit = EndpointHit.builder()
+                .app(appName)
+                .uri(uri)
+                .ip(ip)
+                .timestamp(timestamp)
+                .build();
+
+        if (!async) {
+            statsClient.saveHit(appName, uri, ip, timestamp);
+            return;
+        }
+
+        if (!enqueue(endpointHit)) {
+            dropped.incrementAndGet();
+            log.warn("Очередь обращений переполнена, обращение к {} отброшено", uri);
+        }
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("stats.client.queue.size", queue, BlockingQueue::size)
+                .description("Обращения, ожидающие отправки на сервер статистики")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits.dropped", dropped, AtomicLong::get)
+                .description("Обращения, отброшенные при переполнении очереди")
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits.sent", sent, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("stats.client.hits.failed", failed, AtomicLong::get)
+                .register(registry);
+    }
+
+    private boolean enqueue(EndpointHit endpointHit) {
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    return queue.offer(endpointHit, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case DROP_OLDEST:
+                while (!queue.offer(endpointHit)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                return true;
+            default:
+                return queue.offer(endpointHit);
+        }
+    }
+
+    private void sendLoop() {
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                EndpointHit first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    EndpointHit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                send(batch);
+                batch.clear();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<EndpointHit> batch) {
+        try {
+            ResponseEntity<Object> response = statsClient.saveHits(batch);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                sent.addAndGet(batch.size());
+                return;
+            }
+            log.error("Сервер статистики отклонил пакет обращений: {}", response.getStatusCode());
+        } catch (RuntimeException exception) {
+            log.error("Не удалось отправить пакет обращений размером {}", batch.size(), exception);
+        }
+        failed.addAndGet(batch.size());
+    }
+}
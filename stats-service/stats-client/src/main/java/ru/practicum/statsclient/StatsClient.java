@@ -4,12 +4,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.stats.dto.EndpointHit;
 import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.dto.ViewStatsRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,11 +20,19 @@ import java.util.Map;
 @Service
 @Slf4j
 public class StatsClient extends BaseClient {
+    private static final ParameterizedTypeReference<List<ViewStats>> VIEW_STATS_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<Map<Long, Long>> HITS_BY_ID =
+            new ParameterizedTypeReference<>() {
+            };
+
     @Autowired
-    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public StatsClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder,
+                       StatsHttpTransport transport) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .requestFactory(transport::requestFactory)
                 .build()
         );
     }
@@ -40,6 +50,12 @@ public class StatsClient extends BaseClient {
         return post(Utils.HIT, endpointHit);
     }
 
+    public ResponseEntity<Object> saveHits(List<EndpointHit> endpointHits) {
+        log.info("Отправка пакета обращений размером {}", endpointHits.size());
+
+        return post(Utils.HIT_BATCH, endpointHits);
+    }
+
     public ResponseEntity<Object> getAllStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
         return getAllStats(start, end, uris, null);
     }
@@ -56,15 +72,50 @@ public class StatsClient extends BaseClient {
         log.info("Отправка запроса на получение статистики по параметрам start = {}, end = {}, uris = {}, unique = {}",
                 start, end, uris, unique);
 
+        return get(statsPath(uris, unique), statsParameters(start, end));
+    }
+
+    public List<ViewStats> getViewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        log.info("Отправка запроса на получение статистики по параметрам start = {}, end = {}, uris = {}, unique = {}",
+                start, end, uris, unique);
+
+        List<ViewStats> stats = get(statsPath(uris, unique), statsParameters(start, end), VIEW_STATS_LIST);
+        return stats == null ? List.of() : stats;
+    }
+
+    public Map<Long, Long> getHitsByIds(LocalDateTime start, LocalDateTime end, String uriPrefix, List<Long> ids,
+                                        boolean unique) {
+        log.info("Отправка запроса на получение статистики по идентификаторам start = {}, end = {}, uriPrefix = {}, " +
+                "количество ids = {}, unique = {}", start, end, uriPrefix, ids.size(), unique);
+
         if (start == null || end == null || start.isAfter(end)) {
             throw new IllegalArgumentException("Недопустимый временной промежуток.");
         }
 
-        StringBuilder uriBuilder = new StringBuilder(Utils.STATS + "?start={start}&end={end}");
-        Map<String, Object> parameters = Map.of(
+        ViewStatsRequest request = ViewStatsRequest.builder()
+                .start(start)
+                .end(end)
+                .uriPrefix(uriPrefix)
+                .ids(ids)
+                .unique(unique)
+                .build();
+        Map<Long, Long> hits = post(Utils.STATS_IDS, request, HITS_BY_ID);
+        return hits == null ? Map.of() : hits;
+    }
+
+    private Map<String, Object> statsParameters(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || start.isAfter(end)) {
+            throw new IllegalArgumentException("Недопустимый временной промежуток.");
+        }
+
+        return Map.of(
                 "start", start.format(Utils.DATE_FORMATTER),
                 "end", end.format(Utils.DATE_FORMATTER)
         );
+    }
+
+    private String statsPath(List<String> uris, Boolean unique) {
+        StringBuilder uriBuilder = new StringBuilder(Utils.STATS + "?start={start}&end={end}");
 
         if (uris != null && !uris.isEmpty()) {
             for (String uri : uris) {
@@ -74,8 +125,8 @@ public class StatsClient extends BaseClient {
         if (unique != null) {
             uriBuilder.append("&unique=").append(unique);
         }
-        log.info("Uri {} map {}", uriBuilder, parameters);
+        log.info("Uri {}", uriBuilder);
 
-        return get(uriBuilder.toString(), parameters);
+        return uriBuilder.toString();
     }
 }
@@ -0,0 +1,105 @@
+package ru.practicum.statsclient;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Общий пул HTTP-соединений к сервису статистики: keep-alive, таймауты и фоновое закрытие
+ * простаивающих соединений. Метрики пула публикуются как stats.client.pool.*.
+ */
+@Slf4j
+@Component
+public class StatsHttpTransport {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    public StatsHttpTransport(ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${stats-client.http.max-total:50}") int maxTotal,
+                              @Value("${stats-client.http.max-per-route:50}") int maxPerRoute,
+                              @Value("${stats-client.http.connect-timeout-ms:1000}") int connectTimeoutMs,
+                              @Value("${stats-client.http.connection-request-timeout-ms:500}") int leaseTimeoutMs,
+                              @Value("${stats-client.http.read-timeout-ms:3000}") int readTimeoutMs,
+                              @Value("${stats-client.http.keep-alive-ms:30000}") long keepAliveMs,
+                              @Value("${stats-client.http.idle-evict-ms:30000}") long idleEvictMs,
+                              @Value("${stats-client.http.validate-after-inactivity-ms:2000}") int validateAfterMs) {
+        this.meterRegistry = meterRegistry;
+        this.connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterMs);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(leaseTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAliveMs))
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictMs, TimeUnit.MILLISECONDS)
+                .build();
+        log.info("Пул соединений к сервису статистики: maxTotal = {}, maxPerRoute = {}, connectTimeout = {} мс, " +
+                "readTimeout = {} мс", maxTotal, maxPerRoute, connectTimeoutMs, readTimeoutMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        httpClient.close();
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMs) {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+        };
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        registerPoolGauge(registry, "leased", "Соединения, выданные запросам", PoolStats::getLeased);
+        registerPoolGauge(registry, "available", "Свободные соединения в пуле", PoolStats::getAvailable);
+        registerPoolGauge(registry, "pending", "Запросы, ожидающие соединение", PoolStats::getPending);
+        registerPoolGauge(registry, "max", "Максимальный размер пула", PoolStats::getMax);
+    }
+
+    private void registerPoolGauge(MeterRegistry registry, String name, String description,
+                                   ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("stats.client.pool." + name, this, transport -> value.applyAsDouble(transport.getPoolStats()))
+                .description(description)
+                .register(registry);
+    }
+}
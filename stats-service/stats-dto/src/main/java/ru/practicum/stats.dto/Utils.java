@@ -8,5 +8,11 @@ public abstract class Utils {
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_FORMAT);
 
     public static final String HIT = "/hit";
+    public static final String HIT_BATCH = "/hit/batch";
     public static final String STATS = "/stats";
+    public static final String STATS_IDS = "/stats/ids";
+    public static final String STATS_STREAM = "/stats/stream";
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON = "application/x-ndjson";
 }
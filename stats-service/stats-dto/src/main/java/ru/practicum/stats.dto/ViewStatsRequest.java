@@ -0,0 +1,32 @@
+package ru.practicum.stats.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViewStatsRequest {
+    @NotNull
+    @JsonFormat(pattern = Utils.DATE_FORMAT)
+    private LocalDateTime start;
+    @NotNull
+    @JsonFormat(pattern = Utils.DATE_FORMAT)
+    private LocalDateTime end;
+    @NotBlank
+    private String uriPrefix;
+    @NotEmpty
+    private List<@NotNull Long> ids;
+    private boolean unique;
+    private boolean approximate;
+}
@@ -1,39 +1,91 @@
 package ru.practicum.stats.server.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.stats.dto.EndpointHit;
 import ru.practicum.stats.dto.Utils;
 import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.dto.ViewStatsRequest;
+import ru.practicum.stats.server.model.StatsPage;
+import ru.practicum.stats.server.service.HitBuffer;
 import ru.practicum.stats.server.service.StatsService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 public class StatsController {
 
     private final StatsService statsService;
+    private final HitBuffer hitBuffer;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(Utils.STATS)
-    public List<ViewStats> getAllStats(@RequestParam(name = "start") @DateTimeFormat(pattern = Utils.DATE_FORMAT) LocalDateTime start,
-                                      @RequestParam(name = "end") @DateTimeFormat(pattern = Utils.DATE_FORMAT) LocalDateTime end,
-                                      @RequestParam(name = "uris", required = false) List<String> uris,
-                                      @RequestParam(name = "unique", defaultValue = "false") boolean unique) {
-        if (start.isAfter(end)) {
-            throw new IllegalArgumentException("Недопустимый временной промежуток.");
+    public ResponseEntity<List<ViewStats>> getAllStats(
+            @RequestParam(name = "start") @DateTimeFormat(pattern = Utils.DATE_FORMAT) LocalDateTime start,
+            @RequestParam(name = "end") @DateTimeFormat(pattern = Utils.DATE_FORMAT) LocalDateTime end,
+            @RequestParam(name = "uris", required = false) List<String> uris,
+            @RequestParam(name = "unique", defaultValue = "false") boolean unique,
+            @RequestParam(name = "approximate", defaultValue = "false") boolean approximate,
+            @RequestParam(name = "limit", required = false) @Positive Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        checkRange(start, end);
+        if (limit == null) {
+            if (cursor != null) {
+                throw new IllegalArgumentException("Параметр cursor используется только вместе с limit.");
+            }
+            return ResponseEntity.ok(statsService.getAllStats(start, end, uris, unique, approximate));
+        }
+        StatsPage page = statsService.getStatsPage(start, end, uris, unique, approximate, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(Utils.NEXT_CURSOR_HEADER, page.getNextCursor());
         }
-        return statsService.getAllStats(start, end, uris, unique);
+        return response.body(page.getStats());
+    }
+
+    @GetMapping(value = Utils.STATS_STREAM, produces = Utils.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamStats(
+            @RequestParam(name = "start") @DateTimeFormat(pattern = Utils.DATE_FORMAT) LocalDateTime start,
+            @RequestParam(name = "end") @DateTimeFormat(pattern = Utils.DATE_FORMAT) LocalDateTime end,
+            @RequestParam(name = "uris", required = false) List<String> uris,
+            @RequestParam(name = "unique", defaultValue = "false") boolean unique,
+            @RequestParam(name = "limit", required = false) @Positive Integer limit) {
+        checkRange(start, end);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                statsService.streamStats(start, end, uris, unique, limit, stats -> writeLine(generator, stats));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(Utils.NDJSON)).body(body);
+    }
+
+    @PostMapping(Utils.STATS_IDS)
+    public Map<Long, Long> getHitsByIds(@Valid @RequestBody ViewStatsRequest request) {
+        checkRange(request.getStart(), request.getEnd());
+        return statsService.getHitsByIds(request);
     }
 
     @PostMapping(Utils.HIT)
@@ -42,4 +94,25 @@ public class StatsController {
         statsService.save(request);
     }
 
+    @PostMapping(Utils.HIT_BATCH)
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createStatsBatch(@RequestBody List<@Valid EndpointHit> requests) {
+        hitBuffer.addAll(requests);
+    }
+
+    private void checkRange(LocalDateTime start, LocalDateTime end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Недопустимый временной промежуток.");
+        }
+    }
+
+    private void writeLine(JsonGenerator generator, ViewStats stats) {
+        try {
+            generator.writeObject(stats);
+            generator.writeRaw('\n');
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
 }
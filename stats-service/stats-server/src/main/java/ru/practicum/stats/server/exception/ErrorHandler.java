@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import javax.validation.ConstraintViolationException;
 import java.time.format.DateTimeParseException;
 
 @RestControllerAdvice
@@ -23,7 +24,8 @@ public class ErrorHandler {
             MethodArgumentTypeMismatchException.class,
             IllegalArgumentException.class,
             MissingServletRequestParameterException.class,
-            ClassCastException.class
+            ClassCastException.class,
+            ConstraintViolationException.class
     })
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleBadRequest(final Throwable exception) {
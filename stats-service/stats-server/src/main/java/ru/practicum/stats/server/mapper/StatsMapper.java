@@ -6,6 +6,8 @@ import ru.practicum.stats.dto.EndpointHit;
 import ru.practicum.stats.dto.ViewStats;
 import ru.practicum.stats.server.model.StatsEntity;
 
+import java.util.List;
+
 
 @Mapper(componentModel = "spring")
 public interface StatsMapper {
@@ -14,6 +16,8 @@ public interface StatsMapper {
     @Mapping(source = "timestamp", target = "statsTime")
     StatsEntity toEntity(EndpointHit endpointHit);
 
+    List<StatsEntity> toEntities(List<EndpointHit> endpointHits);
+
     EndpointHit toEndpointHit(StatsEntity entity);
 
     ViewStats toViewStats(StatsEntity entity);
@@ -0,0 +1,6 @@
+package ru.practicum.stats.server.model;
+
+public enum RetentionMode {
+    DETACH,
+    DROP
+}
@@ -0,0 +1,31 @@
+package ru.practicum.stats.server.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES, false),
+    HOUR(ChronoUnit.HOURS, true),
+    DAY(ChronoUnit.DAYS, true);
+
+    private final ChronoUnit unit;
+    private final boolean sketched;
+
+    RollupGranularity(ChronoUnit unit, boolean sketched) {
+        this.unit = unit;
+        this.sketched = sketched;
+    }
+
+    public boolean isSketched() {
+        return sketched;
+    }
+
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = floor(time);
+        return floor.isBefore(time) ? floor.plus(1, unit) : floor;
+    }
+}
@@ -6,6 +6,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -14,10 +15,12 @@ import java.time.LocalDateTime;
 @Table(name = "stats")
 public class StatsEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stats_seq")
+    @SequenceGenerator(name = "stats_seq", sequenceName = "stats_seq", allocationSize = 50)
     private long id;
     private String app;
     private String uri;
     private String ip;
     private LocalDateTime statsTime;
+    private Long rollupBatch;
 }
@@ -0,0 +1,14 @@
+package ru.practicum.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class StatsPage {
+    private final List<ViewStats> stats;
+    private final String nextCursor;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Полуинтервал [from, to), из которого читаются обращения: агрегаты заданной гранулярности
+ * или, если гранулярность не указана, сырые обращения (при pendingOnly — только еще не агрегированные).
+ */
+@Getter
+@RequiredArgsConstructor
+public class StatsRange {
+    private final RollupGranularity granularity;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final boolean pendingOnly;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.stats.server.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stats_rollup")
+public class StatsRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stats_rollup_seq")
+    @SequenceGenerator(name = "stats_rollup_seq", sequenceName = "stats_rollup_seq", allocationSize = 50)
+    private long id;
+    @Enumerated(EnumType.STRING)
+    private RollupGranularity granularity;
+    private LocalDateTime bucketStart;
+    private String app;
+    private String uri;
+    private long hits;
+    private byte[] sketch;
+}
@@ -0,0 +1,9 @@
+package ru.practicum.stats.server.model;
+
+public interface StatsVisitor {
+    String getApp();
+
+    String getUri();
+
+    String getIp();
+}
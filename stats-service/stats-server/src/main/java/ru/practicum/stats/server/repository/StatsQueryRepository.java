@@ -0,0 +1,119 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.model.StatsRange;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+public class StatsQueryRepository {
+    private static final RowMapper<ViewStats> VIEW_STATS_MAPPER = (rs, rowNum) ->
+            new ViewStats(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StatsQueryRepository(DataSource dataSource, @Value("${stats.stream.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    public List<ViewStats> findPage(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                    ViewStats after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcTemplate.query(buildQuery(start, end, uris, unique, after, limit, params), params,
+                VIEW_STATS_MAPPER);
+    }
+
+    public void stream(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique, Integer limit,
+                       Consumer<ViewStats> consumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        RowCallbackHandler handler = rs -> consumer.accept(VIEW_STATS_MAPPER.mapRow(rs, rs.getRow()));
+        jdbcTemplate.query(buildQuery(start, end, uris, unique, null, limit, params), params, handler);
+    }
+
+    /**
+     * Страница суммарных обращений по набору непересекающихся интервалов: агрегаты и сырые обращения
+     * складываются, фильтруются по курсору, сортируются и ограничиваются в базе данных.
+     */
+    public List<ViewStats> findRollupPage(List<StatsRange> ranges, List<String> uris, ViewStats after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        boolean byUri = uris != null && !uris.isEmpty();
+        if (byUri) {
+            params.addValue("uris", uris);
+        }
+        StringBuilder sql = new StringBuilder("SELECT app, uri, SUM(hits) AS hits FROM (");
+        for (int i = 0; i < ranges.size(); i++) {
+            StatsRange range = ranges.get(i);
+            if (i > 0) {
+                sql.append("UNION ALL ");
+            }
+            if (range.getGranularity() != null) {
+                sql.append("SELECT app, uri, hits FROM stats_rollup WHERE granularity = :granularity").append(i)
+                        .append(" AND bucket_start >= :from").append(i).append(" AND bucket_start < :to").append(i)
+                        .append(' ');
+                params.addValue("granularity" + i, range.getGranularity().name());
+            } else {
+                sql.append("SELECT app, uri, COUNT(ip) AS hits FROM stats WHERE stats_time >= :from").append(i)
+                        .append(" AND stats_time < :to").append(i).append(' ');
+                if (range.isPendingOnly()) {
+                    sql.append("AND rollup_batch IS NULL ");
+                }
+            }
+            params.addValue("from" + i, range.getFrom()).addValue("to" + i, range.getTo());
+            if (byUri) {
+                sql.append("AND uri IN (:uris) ");
+            }
+            if (range.getGranularity() == null) {
+                sql.append("GROUP BY app, uri ");
+            }
+        }
+        sql.append(") AS ranges GROUP BY app, uri ");
+        if (after != null) {
+            sql.append("HAVING SUM(hits) < :afterHits OR (SUM(hits) = :afterHits ")
+                    .append("AND (app > :afterApp OR (app = :afterApp AND uri > :afterUri))) ");
+            params.addValue("afterHits", after.getHits())
+                    .addValue("afterApp", after.getApp())
+                    .addValue("afterUri", after.getUri());
+        }
+        sql.append("ORDER BY hits DESC, app, uri LIMIT :limit");
+        params.addValue("limit", limit);
+        return jdbcTemplate.query(sql.toString(), params, VIEW_STATS_MAPPER);
+    }
+
+    private String buildQuery(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                              ViewStats after, Integer limit, MapSqlParameterSource params) {
+        String hits = unique ? "COUNT(DISTINCT ip)" : "COUNT(ip)";
+        StringBuilder sql = new StringBuilder("SELECT app, uri, ").append(hits).append(" AS hits FROM stats ")
+                .append("WHERE stats_time BETWEEN :start AND :end ");
+        params.addValue("start", start).addValue("end", end);
+        if (uris != null && !uris.isEmpty()) {
+            sql.append("AND uri IN (:uris) ");
+            params.addValue("uris", uris);
+        }
+        sql.append("GROUP BY app, uri ");
+        if (after != null) {
+            sql.append("HAVING ").append(hits).append(" < :afterHits OR (").append(hits).append(" = :afterHits ")
+                    .append("AND (app > :afterApp OR (app = :afterApp AND uri > :afterUri))) ");
+            params.addValue("afterHits", after.getHits())
+                    .addValue("afterApp", after.getApp())
+                    .addValue("afterUri", after.getUri());
+        }
+        sql.append("ORDER BY hits DESC, app, uri");
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+            params.addValue("limit", limit);
+        }
+        return sql.toString();
+    }
+}
@@ -1,11 +1,13 @@
 package ru.practicum.stats.server.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.stats.dto.ViewStats;
 import ru.practicum.stats.server.model.StatsEntity;
+import ru.practicum.stats.server.model.StatsVisitor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -43,4 +45,73 @@ public interface StatsRepository extends JpaRepository<StatsEntity, Long> {
             "ORDER BY COUNT(s.ip) DESC")
     List<ViewStats> findAllByStatsUnique(LocalDateTime start, LocalDateTime end);
 
+    @Query("SELECT new ru.practicum.stats.dto.ViewStats(s.app, s.uri, COUNT(s.ip)) " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "GROUP BY s.app, s.uri")
+    List<ViewStats> countHitsInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.stats.dto.ViewStats(s.app, s.uri, COUNT(s.ip)) " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "AND s.uri IN :uris " +
+            "GROUP BY s.app, s.uri")
+    List<ViewStats> countHitsInRangeByUri(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                          @Param("uris") List<String> uris);
+
+    @Query("SELECT new ru.practicum.stats.dto.ViewStats(s.app, s.uri, COUNT(s.ip)) " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "AND s.rollupBatch IS NULL " +
+            "GROUP BY s.app, s.uri")
+    List<ViewStats> countPendingHitsInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.stats.dto.ViewStats(s.app, s.uri, COUNT(s.ip)) " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "AND s.rollupBatch IS NULL " +
+            "AND s.uri IN :uris " +
+            "GROUP BY s.app, s.uri")
+    List<ViewStats> countPendingHitsInRangeByUri(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                 @Param("uris") List<String> uris);
+
+    @Query(value = "SELECT nextval('stats_rollup_batch_seq')", nativeQuery = true)
+    long nextRollupBatch();
+
+    @Modifying
+    @Query(value = "UPDATE stats SET rollup_batch = :batch " +
+            "WHERE rollup_batch IS NULL " +
+            "AND id IN (SELECT id FROM stats WHERE rollup_batch IS NULL ORDER BY id LIMIT :limit)",
+            nativeQuery = true)
+    int markRollupBatch(@Param("batch") long batch, @Param("limit") int limit);
+
+    List<StatsEntity> findAllByRollupBatch(Long rollupBatch);
+
+    @Query("SELECT DISTINCT s.app AS app, s.uri AS uri, s.ip AS ip " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to")
+    List<StatsVisitor> findVisitorsInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT DISTINCT s.app AS app, s.uri AS uri, s.ip AS ip " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "AND s.uri IN :uris")
+    List<StatsVisitor> findVisitorsInRangeByUri(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                @Param("uris") List<String> uris);
+
+    @Query("SELECT DISTINCT s.app AS app, s.uri AS uri, s.ip AS ip " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "AND s.rollupBatch IS NULL")
+    List<StatsVisitor> findPendingVisitorsInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT DISTINCT s.app AS app, s.uri AS uri, s.ip AS ip " +
+            "FROM StatsEntity AS s " +
+            "WHERE s.statsTime >= :from AND s.statsTime < :to " +
+            "AND s.rollupBatch IS NULL " +
+            "AND s.uri IN :uris")
+    List<StatsVisitor> findPendingVisitorsInRangeByUri(@Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to,
+                                                       @Param("uris") List<String> uris);
+
 }
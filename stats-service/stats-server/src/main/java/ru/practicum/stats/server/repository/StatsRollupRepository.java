@@ -0,0 +1,61 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.model.RollupGranularity;
+import ru.practicum.stats.server.model.StatsRollup;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, Long>, StatsRollupUpserter {
+
+    @Query("SELECT new ru.practicum.stats.dto.ViewStats(r.app, r.uri, SUM(r.hits)) " +
+            "FROM StatsRollup AS r " +
+            "WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "GROUP BY r.app, r.uri")
+    List<ViewStats> sumHits(@Param("granularity") RollupGranularity granularity,
+                            @Param("from") LocalDateTime from,
+                            @Param("to") LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.stats.dto.ViewStats(r.app, r.uri, SUM(r.hits)) " +
+            "FROM StatsRollup AS r " +
+            "WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND r.uri IN :uris " +
+            "GROUP BY r.app, r.uri")
+    List<ViewStats> sumHitsByUri(@Param("granularity") RollupGranularity granularity,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("uris") List<String> uris);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StatsRollup> findByGranularityAndBucketStartAndAppAndUri(RollupGranularity granularity,
+                                                                       LocalDateTime bucketStart,
+                                                                       String app,
+                                                                       String uri);
+
+    @Query("SELECT r FROM StatsRollup AS r " +
+            "WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    List<StatsRollup> findAllInRange(@Param("granularity") RollupGranularity granularity,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT r FROM StatsRollup AS r " +
+            "WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND r.uri IN :uris")
+    List<StatsRollup> findAllInRangeByUri(@Param("granularity") RollupGranularity granularity,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("uris") List<String> uris);
+}
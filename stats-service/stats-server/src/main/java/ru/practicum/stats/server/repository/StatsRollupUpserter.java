@@ -0,0 +1,13 @@
+package ru.practicum.stats.server.repository;
+
+import ru.practicum.stats.server.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+public interface StatsRollupUpserter {
+
+    void addHits(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri, long hits);
+
+    int insertIfAbsent(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri, long hits,
+                       byte[] sketch);
+}
@@ -0,0 +1,62 @@
+package ru.practicum.stats.server.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.server.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись агрегатов одним запросом по уникальному ключу uq_stats_rollup, чтобы параллельные агрегации
+ * нескольких экземпляров не конфликтовали на вставке одного и того же интервала.
+ * В PostgreSQL это INSERT ... ON CONFLICT, в H2 — MERGE, так как ON CONFLICT там не поддерживается.
+ */
+@Component
+public class StatsRollupUpserterImpl implements StatsRollupUpserter {
+    private static final String POSTGRESQL_ADD_HITS = "INSERT INTO stats_rollup " +
+            "(id, granularity, bucket_start, app, uri, hits) VALUES (nextval('stats_rollup_seq'), ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) DO UPDATE SET hits = stats_rollup.hits + EXCLUDED.hits";
+    private static final String POSTGRESQL_INSERT_IF_ABSENT = "INSERT INTO stats_rollup " +
+            "(id, granularity, bucket_start, app, uri, hits, sketch) " +
+            "VALUES (nextval('stats_rollup_seq'), ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (granularity, bucket_start, app, uri) DO NOTHING";
+    private static final String H2_SOURCE = "MERGE INTO stats_rollup AS r USING (VALUES (CAST(? AS VARCHAR), " +
+            "CAST(? AS TIMESTAMP), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS BIGINT))) " +
+            "AS v (granularity, bucket_start, app, uri, hits) " +
+            "ON r.granularity = v.granularity AND r.bucket_start = v.bucket_start AND r.app = v.app AND r.uri = v.uri ";
+    private static final String H2_ADD_HITS = H2_SOURCE +
+            "WHEN MATCHED THEN UPDATE SET hits = r.hits + v.hits " +
+            "WHEN NOT MATCHED THEN INSERT (id, granularity, bucket_start, app, uri, hits) " +
+            "VALUES (NEXT VALUE FOR stats_rollup_seq, v.granularity, v.bucket_start, v.app, v.uri, v.hits)";
+    private static final String H2_INSERT_IF_ABSENT = H2_SOURCE +
+            "WHEN NOT MATCHED THEN INSERT (id, granularity, bucket_start, app, uri, hits, sketch) " +
+            "VALUES (NEXT VALUE FOR stats_rollup_seq, v.granularity, v.bucket_start, v.app, v.uri, v.hits, " +
+            "CAST(? AS VARBINARY))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private Boolean postgres;
+
+    public StatsRollupUpserterImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addHits(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri, long hits) {
+        jdbcTemplate.update(isPostgres() ? POSTGRESQL_ADD_HITS : H2_ADD_HITS,
+                granularity.name(), bucketStart, app, uri, hits);
+    }
+
+    public int insertIfAbsent(RollupGranularity granularity, LocalDateTime bucketStart, String app, String uri,
+                              long hits, byte[] sketch) {
+        return jdbcTemplate.update(isPostgres() ? POSTGRESQL_INSERT_IF_ABSENT : H2_INSERT_IF_ABSENT,
+                granularity.name(), bucketStart, app, uri, hits, sketch);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.dto.EndpointHit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Буфер обращений перед пакетной записью в базу. Пакет, который не удалось сохранить, откладывается и повторяется
+ * при следующих сбросах; после max-attempts неудачных попыток он отбрасывается и учитывается в счетчике
+ * stats.server.hits.dropped.
+ */
+@Slf4j
+@Component
+public class HitBuffer {
+    private final StatsService statsService;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Queue<EndpointHit> hits = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Deque<FailedBatch> failedBatches = new ArrayDeque<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public HitBuffer(StatsService statsService,
+                     ObjectProvider<MeterRegistry> meterRegistry,
+                     @Value("${stats.buffer.batch-size:500}") int batchSize,
+                     @Value("${stats.buffer.max-attempts:5}") int maxAttempts) {
+        this.statsService = statsService;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.ifAvailable(registry -> FunctionCounter.builder("stats.server.hits.dropped", dropped,
+                        AtomicLong::get)
+                .description("Обращения, отброшенные после исчерпания попыток записи в базу")
+                .register(registry));
+    }
+
+    public void addAll(List<EndpointHit> newHits) {
+        log.info("Добавление в буфер обращений: {}", newHits.size());
+
+        hits.addAll(newHits);
+
+        if (size.addAndGet(newHits.size()) >= batchSize) {
+            flush();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Scheduled(fixedDelayString = "${stats.buffer.flush-interval-ms:1000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            while (!failedBatches.isEmpty()) {
+                FailedBatch failed = failedBatches.poll();
+                if (!saveBatch(failed.hits, failed.attempts)) {
+                    return;
+                }
+            }
+            while (!hits.isEmpty()) {
+                List<EndpointHit> batch = new ArrayList<>(batchSize);
+                EndpointHit hit;
+                while (batch.size() < batchSize && (hit = hits.poll()) != null) {
+                    batch.add(hit);
+                }
+                size.addAndGet(-batch.size());
+                if (!saveBatch(batch, 0)) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            flush();
+            long lost = size.get() + failedBatches.stream().mapToLong(failed -> failed.hits.size()).sum();
+            if (lost > 0) {
+                dropped.addAndGet(lost);
+                log.error("При остановке не удалось сохранить обращений: {}", lost);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean saveBatch(List<EndpointHit> batch, int previousAttempts) {
+        try {
+            statsService.saveAll(batch);
+            return true;
+        } catch (RuntimeException exception) {
+            int attempts = previousAttempts + 1;
+            if (attempts >= maxAttempts) {
+                dropped.addAndGet(batch.size());
+                log.error("Пакет обращений размером {} отброшен после {} попыток записи", batch.size(), attempts,
+                        exception);
+            } else {
+                failedBatches.addFirst(new FailedBatch(batch, attempts));
+                log.warn("Не удалось сохранить пакет обращений размером {}, попытка {} из {}", batch.size(),
+                        attempts, maxAttempts, exception);
+            }
+            return false;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class FailedBatch {
+        private final List<EndpointHit> hits;
+        private final int attempts;
+    }
+}
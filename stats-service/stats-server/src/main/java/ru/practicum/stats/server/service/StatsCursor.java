@@ -0,0 +1,42 @@
+package ru.practicum.stats.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.stats.dto.ViewStats;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Непрозрачный курсор постраничной выдачи статистики: последняя отданная строка в порядке
+ * hits DESC, app, uri.
+ */
+@Slf4j
+final class StatsCursor {
+    static final Comparator<ViewStats> ORDER = Comparator.comparingLong(ViewStats::getHits).reversed()
+            .thenComparing(ViewStats::getApp)
+            .thenComparing(ViewStats::getUri);
+
+    private static final String SEPARATOR = "\n";
+
+    private StatsCursor() {
+    }
+
+    static String encode(ViewStats last) {
+        String value = last.getHits() + SEPARATOR + last.getApp() + SEPARATOR + last.getUri();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ViewStats decode(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            if (parts.length == 3) {
+                return new ViewStats(parts[1], parts[2], Long.parseLong(parts[0]));
+            }
+        } catch (IllegalArgumentException exception) {
+            log.debug("Не удалось разобрать курсор {}", cursor, exception);
+        }
+        throw new IllegalArgumentException("Некорректный курсор.");
+    }
+}
@@ -0,0 +1,188 @@
+package ru.practicum.stats.server.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.stats.server.model.RetentionMode;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Помесячные партиции таблицы stats в PostgreSQL и политика хранения. При старте любая ошибка останавливает
+ * приложение: несекционированная таблица stats в PostgreSQL требует миграции
+ * {@value #MIGRATION_SCRIPT}, а без созданной партиции новые обращения молча уходят в stats_default.
+ * Партиция stats_default создается здесь, а не в schema-postgresql.sql: на несекционированной таблице DDL упал бы
+ * при инициализации схемы раньше, чем {@link #onStartup()} сообщит о миграции.
+ * Ошибки плановых запусков учитываются в счетчике stats.partition.maintenance.failures.
+ */
+@Slf4j
+@Service
+public class StatsPartitionService {
+    public static final String MIGRATION_SCRIPT = "migration/stats-partitioning-postgresql.sql";
+
+    private static final String PARTITION_PREFIX = "stats_y";
+    private static final String DEFAULT_PARTITION = "stats_default";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'stats_y'yyyy'm'MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetentionMode retentionMode;
+    private final AtomicLong failures = new AtomicLong();
+    private Boolean postgres;
+    private Boolean partitioned;
+
+    public StatsPartitionService(JdbcTemplate jdbcTemplate,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${stats.partition.months-ahead:3}") int monthsAhead,
+                                 @Value("${stats.retention.months:0}") int retentionMonths,
+                                 @Value("${stats.retention.mode:DETACH}") RetentionMode retentionMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionMode = retentionMode;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.ifAvailable(registry -> FunctionCounter.builder("stats.partition.maintenance.failures",
+                        failures, AtomicLong::get)
+                .description("Неудачные плановые запуски обслуживания партиций таблицы статистики")
+                .register(registry));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (isPostgres() && !isPartitioned()) {
+            throw new IllegalStateException("Таблица stats в PostgreSQL не секционирована. Перед запуском выполните "
+                    + "миграцию " + MIGRATION_SCRIPT);
+        }
+        YearMonth current = YearMonth.now();
+        createPartitions(current);
+        applyRetention(current);
+    }
+
+    @Scheduled(cron = "${stats.partition.cron:0 0 3 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        try {
+            createPartitions(current);
+            applyRetention(current);
+        } catch (RuntimeException exception) {
+            failures.incrementAndGet();
+            log.error("Не удалось обслужить партиции таблицы статистики", exception);
+        }
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    public void createPartitions(YearMonth from) {
+        if (!isPartitioned()) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF stats DEFAULT");
+        } catch (DataAccessException exception) {
+            throw new IllegalStateException("Не удалось создать партицию " + DEFAULT_PARTITION, exception);
+        }
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = from.plusMonths(i);
+            String name = partitionName(month);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF stats FOR VALUES FROM ('"
+                        + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException exception) {
+                throw new IllegalStateException(String.format("Не удалось создать партицию %s, обращения за %s "
+                        + "попадут в %s", name, month, DEFAULT_PARTITION), exception);
+            }
+        }
+        Long misplaced = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + DEFAULT_PARTITION, Long.class);
+        if (misplaced != null && misplaced > 0) {
+            log.warn("В {} лежат обращения вне помесячных партиций: {}", DEFAULT_PARTITION, misplaced);
+        }
+    }
+
+    public void applyRetention(YearMonth current) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldest = current.minusMonths(retentionMonths);
+        if (!isPartitioned()) {
+            int deleted = jdbcTemplate.update("DELETE FROM stats WHERE stats_time < ?", oldest.atDay(1).atStartOfDay());
+            log.info("Удалено устаревших обращений: {}", deleted);
+            return;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE stats_time < ?",
+                oldest.atDay(1).atStartOfDay());
+        log.info("Удалено устаревших обращений из {}: {}", DEFAULT_PARTITION, deleted);
+        for (String name : findPartitions()) {
+            YearMonth month = parseMonth(name);
+            if (month == null || !month.isBefore(oldest)) {
+                continue;
+            }
+            if (retentionMode == RetentionMode.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE stats DETACH PARTITION " + name);
+            }
+            log.info("Партиция {} обработана политикой хранения {}", name, retentionMode);
+        }
+    }
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = isPostgres() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'stats'::regclass)",
+                    Boolean.class));
+            if (!partitioned) {
+                log.info("Таблица stats не секционирована, устаревшие обращения удаляются построчно");
+            }
+        }
+        return partitioned;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'stats'::regclass AND c.relname LIKE '" + PARTITION_PREFIX + "%'", String.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_NAME.format(month.atDay(1));
+    }
+
+    private static YearMonth parseMonth(String name) {
+        try {
+            return YearMonth.from(LocalDate.parse(name + "d01", DateTimeFormatter.ofPattern("'stats_y'yyyy'm'MM'd'dd")));
+        } catch (DateTimeParseException exception) {
+            return null;
+        }
+    }
+}
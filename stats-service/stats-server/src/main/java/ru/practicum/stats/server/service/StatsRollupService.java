@@ -0,0 +1,315 @@
+package ru.practicum.stats.server.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.hll.HyperLogLog;
+import ru.practicum.stats.server.model.RollupGranularity;
+import ru.practicum.stats.server.model.StatsEntity;
+import ru.practicum.stats.server.model.StatsRange;
+import ru.practicum.stats.server.model.StatsRollup;
+import ru.practicum.stats.server.model.StatsVisitor;
+import ru.practicum.stats.server.repository.StatsQueryRepository;
+import ru.practicum.stats.server.repository.StatsRepository;
+import ru.practicum.stats.server.repository.StatsRollupRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class StatsRollupService {
+    private static final List<RollupGranularity> COARSEST_FIRST =
+            List.of(RollupGranularity.DAY, RollupGranularity.HOUR, RollupGranularity.MINUTE);
+    private static final List<RollupGranularity> SKETCHED_COARSEST_FIRST =
+            List.of(RollupGranularity.DAY, RollupGranularity.HOUR);
+
+    private final StatsRepository statsRepository;
+    private final StatsRollupRepository statsRollupRepository;
+    private final StatsQueryRepository statsQueryRepository;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public StatsRollupService(StatsRepository statsRepository,
+                              StatsRollupRepository statsRollupRepository,
+                              StatsQueryRepository statsQueryRepository,
+                              @Value("${stats.rollup.enabled:true}") boolean enabled,
+                              @Value("${stats.rollup.batch-size:10000}") int batchSize) {
+        this.statsRepository = statsRepository;
+        this.statsRollupRepository = statsRollupRepository;
+        this.statsQueryRepository = statsQueryRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Агрегаты и неагрегированный хвост читаются разными запросами, поэтому нужен один снимок данных:
+     * иначе пакет, агрегированный между запросами, был бы посчитан дважды или пропущен.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<ViewStats> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Coverage coverage = Coverage.plan(start, end.plusNanos(1), COARSEST_FIRST);
+        Map<String, Map<String, Long>> hits = new LinkedHashMap<>();
+
+        for (Segment segment : coverage.segments) {
+            merge(hits, sumRollups(segment, uris));
+        }
+        for (Segment edge : coverage.edges()) {
+            merge(hits, countRaw(edge, uris));
+        }
+        if (coverage.isCovered()) {
+            merge(hits, countPending(coverage.from, coverage.to, uris));
+        }
+
+        List<ViewStats> stats = new ArrayList<>();
+        hits.forEach((app, byUri) -> byUri.forEach((uri, count) -> stats.add(new ViewStats(app, uri, count))));
+        stats.sort(Comparator.comparingLong(ViewStats::getHits).reversed());
+        return stats;
+    }
+
+    /**
+     * Та же сумма, что и в {@link #getStats}, но одна страница в порядке hits DESC, app, uri после строки after:
+     * агрегаты, края интервала и неагрегированный хвост складываются одним запросом.
+     */
+    @Transactional(readOnly = true)
+    public List<ViewStats> getStatsPage(LocalDateTime start, LocalDateTime end, List<String> uris, ViewStats after,
+                                        int limit) {
+        Coverage coverage = Coverage.plan(start, end.plusNanos(1), COARSEST_FIRST);
+        List<StatsRange> ranges = new ArrayList<>();
+
+        for (Segment segment : coverage.segments) {
+            ranges.add(new StatsRange(segment.granularity, segment.from, segment.to, false));
+        }
+        for (Segment edge : coverage.edges()) {
+            ranges.add(new StatsRange(null, edge.from, edge.to, false));
+        }
+        if (coverage.isCovered()) {
+            ranges.add(new StatsRange(null, coverage.from, coverage.to, true));
+        }
+        return statsQueryRepository.findRollupPage(ranges, uris, after, limit);
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<ViewStats> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Coverage coverage = Coverage.plan(start, end.plusNanos(1), SKETCHED_COARSEST_FIRST);
+        Map<String, Map<String, HyperLogLog>> sketches = new LinkedHashMap<>();
+
+        for (Segment segment : coverage.segments) {
+            for (StatsRollup rollup : findRollups(segment, uris)) {
+                sketch(sketches, rollup.getApp(), rollup.getUri()).merge(HyperLogLog.fromBytes(rollup.getSketch()));
+            }
+        }
+        for (Segment edge : coverage.edges()) {
+            addVisitors(sketches, findVisitors(edge, uris));
+        }
+        if (coverage.isCovered()) {
+            addVisitors(sketches, findPendingVisitors(coverage.from, coverage.to, uris));
+        }
+
+        List<ViewStats> stats = new ArrayList<>();
+        sketches.forEach((app, byUri) -> byUri.forEach((uri, sketch) ->
+                stats.add(new ViewStats(app, uri, sketch.estimate()))));
+        stats.sort(Comparator.comparingLong(ViewStats::getHits).reversed());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.rollup.interval-ms:10000}")
+    @Transactional
+    public void rollup() {
+        if (!enabled) {
+            return;
+        }
+        long batch = statsRepository.nextRollupBatch();
+        int claimed = statsRepository.markRollupBatch(batch, batchSize);
+        if (claimed == 0) {
+            return;
+        }
+
+        Map<RollupKey, Bucket> buckets = new HashMap<>();
+        for (StatsEntity stats : statsRepository.findAllByRollupBatch(batch)) {
+            for (RollupGranularity granularity : COARSEST_FIRST) {
+                RollupKey key = new RollupKey(granularity, granularity.floor(stats.getStatsTime()),
+                        stats.getApp(), stats.getUri());
+                buckets.computeIfAbsent(key, k -> new Bucket(granularity.isSketched())).add(stats.getIp());
+            }
+        }
+        buckets.forEach(this::save);
+
+        log.info("Агрегировано обращений: {}, пакет {}", claimed, batch);
+    }
+
+    private void save(RollupKey key, Bucket bucket) {
+        if (bucket.sketch == null) {
+            statsRollupRepository.addHits(key.granularity, key.bucketStart, key.app, key.uri, bucket.hits);
+            return;
+        }
+        if (statsRollupRepository.insertIfAbsent(key.granularity, key.bucketStart, key.app, key.uri, bucket.hits,
+                bucket.sketch.toBytes()) > 0) {
+            return;
+        }
+        StatsRollup rollup = statsRollupRepository
+                .findByGranularityAndBucketStartAndAppAndUri(key.granularity, key.bucketStart, key.app, key.uri)
+                .orElseThrow();
+        HyperLogLog sketch = HyperLogLog.fromBytes(rollup.getSketch());
+        sketch.merge(bucket.sketch);
+        rollup.setHits(rollup.getHits() + bucket.hits);
+        rollup.setSketch(sketch.toBytes());
+    }
+
+    private List<ViewStats> sumRollups(Segment segment, List<String> uris) {
+        return uris == null || uris.isEmpty()
+                ? statsRollupRepository.sumHits(segment.granularity, segment.from, segment.to)
+                : statsRollupRepository.sumHitsByUri(segment.granularity, segment.from, segment.to, uris);
+    }
+
+    private List<StatsRollup> findRollups(Segment segment, List<String> uris) {
+        return uris == null || uris.isEmpty()
+                ? statsRollupRepository.findAllInRange(segment.granularity, segment.from, segment.to)
+                : statsRollupRepository.findAllInRangeByUri(segment.granularity, segment.from, segment.to, uris);
+    }
+
+    private List<ViewStats> countRaw(Segment edge, List<String> uris) {
+        return uris == null || uris.isEmpty()
+                ? statsRepository.countHitsInRange(edge.from, edge.to)
+                : statsRepository.countHitsInRangeByUri(edge.from, edge.to, uris);
+    }
+
+    private List<ViewStats> countPending(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        return uris == null || uris.isEmpty()
+                ? statsRepository.countPendingHitsInRange(from, to)
+                : statsRepository.countPendingHitsInRangeByUri(from, to, uris);
+    }
+
+    private List<StatsVisitor> findVisitors(Segment edge, List<String> uris) {
+        return uris == null || uris.isEmpty()
+                ? statsRepository.findVisitorsInRange(edge.from, edge.to)
+                : statsRepository.findVisitorsInRangeByUri(edge.from, edge.to, uris);
+    }
+
+    private List<StatsVisitor> findPendingVisitors(LocalDateTime from, LocalDateTime to, List<String> uris) {
+        return uris == null || uris.isEmpty()
+                ? statsRepository.findPendingVisitorsInRange(from, to)
+                : statsRepository.findPendingVisitorsInRangeByUri(from, to, uris);
+    }
+
+    private void merge(Map<String, Map<String, Long>> hits, List<ViewStats> stats) {
+        for (ViewStats viewStats : stats) {
+            hits.computeIfAbsent(viewStats.getApp(), a -> new LinkedHashMap<>())
+                    .merge(viewStats.getUri(), viewStats.getHits(), Long::sum);
+        }
+    }
+
+    private void addVisitors(Map<String, Map<String, HyperLogLog>> sketches, List<StatsVisitor> visitors) {
+        for (StatsVisitor visitor : visitors) {
+            sketch(sketches, visitor.getApp(), visitor.getUri()).add(visitor.getIp());
+        }
+    }
+
+    private HyperLogLog sketch(Map<String, Map<String, HyperLogLog>> sketches, String app, String uri) {
+        return sketches.computeIfAbsent(app, a -> new LinkedHashMap<>())
+                .computeIfAbsent(uri, u -> new HyperLogLog());
+    }
+
+    @RequiredArgsConstructor
+    private static class Segment {
+        private final RollupGranularity granularity;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+    }
+
+    private static class Coverage {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final List<Segment> segments = new ArrayList<>();
+        private LocalDateTime from;
+        private LocalDateTime to;
+
+        private Coverage(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        static Coverage plan(LocalDateTime start, LocalDateTime end, List<RollupGranularity> granularities) {
+            Coverage coverage = new Coverage(start, end);
+            for (RollupGranularity granularity : granularities) {
+                LocalDateTime from = granularity.ceil(start);
+                LocalDateTime to = granularity.floor(end);
+                if (!coverage.isCovered()) {
+                    if (from.isBefore(to)) {
+                        coverage.segments.add(new Segment(granularity, from, to));
+                        coverage.from = from;
+                        coverage.to = to;
+                    }
+                    continue;
+                }
+                if (from.isBefore(coverage.from)) {
+                    coverage.segments.add(new Segment(granularity, from, coverage.from));
+                    coverage.from = from;
+                }
+                if (to.isAfter(coverage.to)) {
+                    coverage.segments.add(new Segment(granularity, coverage.to, to));
+                    coverage.to = to;
+                }
+            }
+            return coverage;
+        }
+
+        boolean isCovered() {
+            return from != null;
+        }
+
+        List<Segment> edges() {
+            if (!isCovered()) {
+                return List.of(new Segment(null, start, end));
+            }
+            List<Segment> edges = new ArrayList<>();
+            if (start.isBefore(from)) {
+                edges.add(new Segment(null, start, from));
+            }
+            if (to.isBefore(end)) {
+                edges.add(new Segment(null, to, end));
+            }
+            return edges;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class RollupKey {
+        private final RollupGranularity granularity;
+        private final LocalDateTime bucketStart;
+        private final String app;
+        private final String uri;
+    }
+
+    private static class Bucket {
+        private final HyperLogLog sketch;
+        private long hits;
+
+        Bucket(boolean sketched) {
+            this.sketch = sketched ? new HyperLogLog() : null;
+        }
+
+        void add(String ip) {
+            hits++;
+            if (sketch != null) {
+                sketch.add(ip);
+            }
+        }
+    }
+}
@@ -3,27 +3,47 @@ package ru.practicum.stats.server.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.stats.dto.EndpointHit;
 import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.dto.ViewStatsRequest;
 import ru.practicum.stats.server.mapper.StatsMapper;
 import ru.practicum.stats.server.model.StatsEntity;
+import ru.practicum.stats.server.model.StatsPage;
+import ru.practicum.stats.server.repository.StatsQueryRepository;
 import ru.practicum.stats.server.repository.StatsRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StatsService {
     private final StatsRepository statsRepository;
+    private final StatsQueryRepository statsQueryRepository;
     private final StatsMapper statsMapper;
+    private final StatsRollupService statsRollupService;
 
-    @Transactional
     public List<ViewStats> getAllStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        return getAllStats(start, end, uris, unique, false);
+    }
+
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public List<ViewStats> getAllStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                       boolean approximate) {
 
-        log.info("Start {} end {} uris {}", start, end, uris);
+        log.info("Start {} end {} uris {} approximate {}", start, end, uris, approximate);
+        if (isRollupQuery(unique, approximate)) {
+            return unique ? statsRollupService.getApproximateUniqueStats(start, end, uris)
+                    : statsRollupService.getStats(start, end, uris);
+        }
         if (uris == null || uris.isEmpty()) {
             if (unique) {
                 return statsRepository.findAllByStatsUnique(start, end);
@@ -45,10 +65,67 @@ public class StatsService {
 
     }
 
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public StatsPage getStatsPage(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                                  boolean approximate, String cursor, int limit) {
+        ViewStats after = cursor == null ? null : StatsCursor.decode(cursor);
+        List<ViewStats> stats;
+        if (!isRollupQuery(unique, approximate)) {
+            stats = statsQueryRepository.findPage(start, end, uris, unique, after, limit + 1);
+        } else if (!unique) {
+            stats = statsRollupService.getStatsPage(start, end, uris, after, limit + 1);
+        } else {
+            // Скетчи HyperLogLog объединяются только в памяти, поэтому страница отрезается после их слияния.
+            stats = statsRollupService.getApproximateUniqueStats(start, end, uris).stream()
+                    .filter(item -> after == null || StatsCursor.ORDER.compare(item, after) > 0)
+                    .sorted(StatsCursor.ORDER)
+                    .limit(limit + 1L)
+                    .collect(Collectors.toList());
+        }
+        if (stats.size() <= limit) {
+            return new StatsPage(stats, null);
+        }
+        List<ViewStats> page = new ArrayList<>(stats.subList(0, limit));
+        return new StatsPage(page, StatsCursor.encode(page.get(limit - 1)));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique, Integer limit,
+                            Consumer<ViewStats> consumer) {
+        statsQueryRepository.stream(start, end, uris, unique, limit, consumer);
+    }
+
+    public Map<Long, Long> getHitsByIds(ViewStatsRequest request) {
+        String prefix = request.getUriPrefix();
+        Map<Long, Long> hits = new LinkedHashMap<>();
+        request.getIds().forEach(id -> hits.put(id, 0L));
+
+        List<String> uris = hits.keySet().stream()
+                .map(id -> prefix + id)
+                .collect(Collectors.toList());
+
+        for (ViewStats stats : getAllStats(request.getStart(), request.getEnd(), uris, request.isUnique(),
+                request.isApproximate())) {
+            Long id = Long.valueOf(stats.getUri().substring(prefix.length()));
+            hits.merge(id, stats.getHits(), Long::sum);
+        }
+        return hits;
+    }
+
+    private boolean isRollupQuery(boolean unique, boolean approximate) {
+        return statsRollupService.isEnabled() && (!unique || approximate);
+    }
+
     @Transactional
     public void save(EndpointHit request) {
         StatsEntity stats = statsRepository.save(statsMapper.toEntity(request));
         log.info("Stats {}", stats);
     }
 
+    @Transactional
+    public void saveAll(List<EndpointHit> requests) {
+        List<StatsEntity> stats = statsRepository.saveAll(statsMapper.toEntities(requests));
+        log.info("Сохранено обращений: {}", stats.size());
+    }
+
 }
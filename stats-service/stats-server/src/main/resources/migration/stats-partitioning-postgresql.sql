@@ -0,0 +1,52 @@
+-- Перевод существующей несекционированной таблицы stats на помесячные партиции.
+-- Выполняется вручную через psql при остановленном сервисе статистики:
+--   psql -d stats -f stats-partitioning-postgresql.sql
+-- Выполняется до первого запуска новой версии. Если новая версия уже запускалась, сервис остановился
+-- с сообщением об этой миграции; скрипт подходит и для такой базы.
+-- Индексы на новой таблице создаст schema.sql при следующем запуске сервиса.
+BEGIN;
+
+LOCK TABLE stats IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE stats RENAME TO stats_unpartitioned;
+ALTER TABLE stats_unpartitioned RENAME CONSTRAINT stats_pkey TO stats_unpartitioned_pkey;
+ALTER INDEX IF EXISTS stats_time_idx RENAME TO stats_unpartitioned_time_idx;
+ALTER INDEX IF EXISTS stats_rollup_batch_idx RENAME TO stats_unpartitioned_rollup_batch_idx;
+ALTER INDEX IF EXISTS stats_uri_time_idx RENAME TO stats_unpartitioned_uri_time_idx;
+-- В таблице, созданной до появления агрегатов, колонки rollup_batch нет.
+ALTER TABLE stats_unpartitioned ADD COLUMN IF NOT EXISTS rollup_batch BIGINT;
+
+CREATE TABLE stats (
+ id BIGINT NOT NULL,
+ app varchar NOT NULL,
+ uri varchar NOT NULL,
+ ip varchar NOT NULL,
+ stats_time timestamp without time zone not null,
+ rollup_batch BIGINT,
+ PRIMARY KEY (id, stats_time)
+) PARTITION BY RANGE (stats_time);
+
+CREATE TABLE stats_default PARTITION OF stats DEFAULT;
+
+-- Партиции на каждый месяц с данными и на три месяца вперед, как stats.partition.months-ahead по умолчанию.
+DO $$
+DECLARE
+    month date;
+BEGIN
+    FOR month IN
+        SELECT generate_series(
+            date_trunc('month', COALESCE((SELECT MIN(stats_time) FROM stats_unpartitioned), now())),
+            date_trunc('month', now()) + interval '3 months',
+            interval '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF stats FOR VALUES FROM (%L) TO (%L)',
+                       to_char(month, '"stats_y"YYYY"m"MM'), month, (month + interval '1 month')::date);
+    END LOOP;
+END $$;
+
+INSERT INTO stats (id, app, uri, ip, stats_time, rollup_batch)
+SELECT id, app, uri, ip, stats_time, rollup_batch FROM stats_unpartitioned;
+
+DROP TABLE stats_unpartitioned;
+
+COMMIT;
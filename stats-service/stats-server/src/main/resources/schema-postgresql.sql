@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS stats (
+ id BIGINT NOT NULL,
+ app varchar NOT NULL,
+ uri varchar NOT NULL,
+ ip varchar NOT NULL,
+ stats_time timestamp without time zone not null,
+ rollup_batch BIGINT,
+ PRIMARY KEY (id, stats_time)
+) PARTITION BY RANGE (stats_time);
+
+-- Базы, созданные до перехода с IDENTITY на stats_seq: сдвигаем последовательность за максимальный id.
+-- Hibernate выделяет id блоками по 50, заканчивающимися значением nextval, поэтому запас равен размеру блока.
+CREATE SEQUENCE IF NOT EXISTS stats_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('stats_seq', (SELECT MAX(id) + 50 FROM stats), false)
+WHERE (SELECT MAX(id) FROM stats) >= (SELECT last_value FROM stats_seq);
@@ -1,7 +1,29 @@
+CREATE SEQUENCE IF NOT EXISTS stats_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stats_rollup_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stats_rollup_batch_seq START WITH 1 INCREMENT BY 1;
+
 CREATE TABLE IF NOT EXISTS stats (
- id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+ id BIGINT NOT NULL PRIMARY KEY,
  app varchar NOT NULL,
  uri varchar NOT NULL,
  ip varchar NOT NULL,
- stats_time timestamp without time zone not null
-);
\ No newline at end of file
+ stats_time timestamp without time zone not null,
+ rollup_batch BIGINT
+);
+
+ALTER TABLE stats ADD COLUMN IF NOT EXISTS rollup_batch BIGINT;
+
+CREATE INDEX IF NOT EXISTS stats_time_idx ON stats (stats_time);
+CREATE INDEX IF NOT EXISTS stats_rollup_batch_idx ON stats (rollup_batch, stats_time);
+CREATE INDEX IF NOT EXISTS stats_uri_time_idx ON stats (uri, stats_time);
+
+CREATE TABLE IF NOT EXISTS stats_rollup (
+ id BIGINT NOT NULL PRIMARY KEY,
+ granularity varchar(16) NOT NULL,
+ bucket_start timestamp without time zone NOT NULL,
+ app varchar NOT NULL,
+ uri varchar NOT NULL,
+ hits BIGINT NOT NULL,
+ sketch bytea,
+ CONSTRAINT uq_stats_rollup UNIQUE (granularity, bucket_start, app, uri)
+);
@@ -0,0 +1,132 @@
+package ru.practicum.stats.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.stats.dto.EndpointHit;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.server.service.HitBuffer;
+import ru.practicum.stats.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class HitBufferTest {
+    @Mock
+    private StatsService statsService;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Captor
+    private ArgumentCaptor<List<EndpointHit>> batchArgumentCaptor;
+
+    private HitBuffer hitBuffer;
+
+    private final EndpointHit endpointHit = EndpointHit.builder()
+            .app("APP")
+            .uri("/test/uri/1")
+            .ip("127.0.0.1")
+            .timestamp(LocalDateTime.parse("2023-07-06 12:00:23", Utils.DATE_FORMATTER))
+            .build();
+
+    @BeforeEach
+    public void beforeEach() {
+        hitBuffer = new HitBuffer(statsService, meterRegistry, 3, 2);
+    }
+
+    @Test
+    public void shouldKeepHitsUntilBatchIsFull() {
+        hitBuffer.addAll(List.of(endpointHit, endpointHit));
+
+        assertEquals(2, hitBuffer.size());
+        verify(statsService, never()).saveAll(any());
+    }
+
+    @Test
+    public void shouldFlushWhenBatchIsFull() {
+        hitBuffer.addAll(List.of(endpointHit, endpointHit));
+        hitBuffer.addAll(List.of(endpointHit, endpointHit));
+
+        verify(statsService, times(2)).saveAll(batchArgumentCaptor.capture());
+
+        assertEquals(3, batchArgumentCaptor.getAllValues().get(0).size());
+        assertEquals(1, batchArgumentCaptor.getAllValues().get(1).size());
+        assertEquals(0, hitBuffer.size());
+    }
+
+    @Test
+    public void shouldFlushByTimer() {
+        hitBuffer.addAll(List.of(endpointHit));
+
+        hitBuffer.flush();
+
+        verify(statsService, times(1)).saveAll(List.of(endpointHit));
+        assertEquals(0, hitBuffer.size());
+    }
+
+    @Test
+    public void shouldFlushOnShutdown() {
+        hitBuffer.addAll(List.of(endpointHit, endpointHit));
+
+        hitBuffer.flushOnShutdown();
+
+        verify(statsService, times(1)).saveAll(List.of(endpointHit, endpointHit));
+    }
+
+    @Test
+    public void shouldContinueWhenBatchIsNotSaved() {
+        doThrow(new IllegalStateException("db is down")).when(statsService).saveAll(any());
+
+        hitBuffer.addAll(List.of(endpointHit, endpointHit, endpointHit));
+
+        assertEquals(0, hitBuffer.size());
+    }
+
+    @Test
+    public void shouldRetryFailedBatch() {
+        doThrow(new IllegalStateException("db is down")).doNothing().when(statsService).saveAll(any());
+
+        hitBuffer.addAll(List.of(endpointHit, endpointHit, endpointHit));
+        hitBuffer.flush();
+
+        verify(statsService, times(2)).saveAll(List.of(endpointHit, endpointHit, endpointHit));
+        assertEquals(0, hitBuffer.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropBatchAfterMaxAttempts() {
+        doThrow(new IllegalStateException("db is down")).when(statsService).saveAll(any());
+
+        hitBuffer.addAll(List.of(endpointHit, endpointHit, endpointHit));
+        hitBuffer.flush();
+        hitBuffer.flush();
+
+        verify(statsService, times(2)).saveAll(any());
+        assertEquals(3, hitBuffer.getDroppedCount());
+    }
+
+    @Test
+    public void shouldCountHitsLostOnShutdown() {
+        doThrow(new IllegalStateException("db is down")).when(statsService).saveAll(any());
+
+        hitBuffer.addAll(List.of(endpointHit));
+        hitBuffer.flushOnShutdown();
+
+        assertEquals(1, hitBuffer.getDroppedCount());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.stats.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.statsclient.HitReporter;
+import ru.practicum.statsclient.OverflowPolicy;
+import ru.practicum.statsclient.StatsClient;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class HitReporterTest {
+    @Mock
+    private StatsClient statsClient;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final LocalDateTime timestamp = LocalDateTime.parse("2023-07-05 10:00:00", Utils.DATE_FORMATTER);
+
+    @Test
+    public void shouldSendSynchronouslyWhenAsyncIsDisabled() {
+        HitReporter hitReporter = new HitReporter(statsClient, meterRegistry, false, 2, 10, 10, 10, OverflowPolicy.DROP_NEWEST);
+
+        hitReporter.report("APP", "/events/1", "127.0.0.1", timestamp);
+
+        verify(statsClient, times(1)).saveHit("APP", "/events/1", "127.0.0.1", timestamp);
+        assertEquals(0, hitReporter.getQueueSize());
+    }
+
+    @Test
+    public void shouldDropNewestWhenQueueIsFull() {
+        HitReporter hitReporter = new HitReporter(statsClient, meterRegistry, true, 2, 10, 10, 10, OverflowPolicy.DROP_NEWEST);
+
+        hitReporter.report("APP", "/events/1", "127.0.0.1", timestamp);
+        hitReporter.report("APP", "/events/2", "127.0.0.1", timestamp);
+        hitReporter.report("APP", "/events/3", "127.0.0.1", timestamp);
+
+        assertEquals(2, hitReporter.getQueueSize());
+        assertEquals(1, hitReporter.getDroppedCount());
+        verify(statsClient, never()).saveHit(any(), any(), any(), any());
+    }
+
+    @Test
+    public void shouldDropOldestWhenQueueIsFull() {
+        HitReporter hitReporter = new HitReporter(statsClient, meterRegistry, true, 2, 10, 10, 10, OverflowPolicy.DROP_OLDEST);
+
+        hitReporter.report("APP", "/events/1", "127.0.0.1", timestamp);
+        hitReporter.report("APP", "/events/2", "127.0.0.1", timestamp);
+        hitReporter.report("APP", "/events/3", "127.0.0.1", timestamp);
+
+        assertEquals(2, hitReporter.getQueueSize());
+        assertEquals(1, hitReporter.getDroppedCount());
+    }
+
+    @Test
+    public void shouldDropAfterTimeoutWhenBlocking() {
+        HitReporter hitReporter = new HitReporter(statsClient, meterRegistry, true, 1, 10, 10, 10, OverflowPolicy.BLOCK);
+
+        hitReporter.report("APP", "/events/1", "127.0.0.1", timestamp);
+        hitReporter.report("APP", "/events/2", "127.0.0.1", timestamp);
+
+        assertEquals(1, hitReporter.getQueueSize());
+        assertEquals(1, hitReporter.getDroppedCount());
+    }
+}
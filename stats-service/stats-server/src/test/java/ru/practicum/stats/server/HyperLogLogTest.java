@@ -0,0 +1,64 @@
+package ru.practicum.stats.server;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.server.hll.HyperLogLog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void estimateSmallCardinalityAlmostExactly() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("192.168.0." + i % 50);
+        }
+
+        assertTrue(Math.abs(sketch.estimate() - 50) <= 1, "Оценка " + sketch.estimate());
+    }
+
+    @Test
+    public void estimateLargeCardinalityWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            sketch.add("10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255));
+        }
+
+        double error = Math.abs(sketch.estimate() - count) / (double) count;
+        assertTrue(error < 0.05, "Ошибка оценки " + error);
+    }
+
+    @Test
+    public void mergeEqualsUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            String ip = "172.16." + (i >> 8) + "." + (i & 255);
+            (i % 3 == 0 ? first : second).add(ip);
+            union.add(ip);
+        }
+
+        first.merge(second);
+
+        assertEquals(union.estimate(), first.estimate());
+    }
+
+    @Test
+    public void serializeSparseAndDense() {
+        HyperLogLog sparse = new HyperLogLog();
+        sparse.add("127.0.0.1");
+        sparse.add("127.0.0.2");
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            dense.add("ip-" + i);
+        }
+
+        assertTrue(sparse.toBytes().length < 10);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparse.toBytes()).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(dense.toBytes()).estimate());
+        assertEquals(0, HyperLogLog.fromBytes(null).estimate());
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.stats.server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.service.StatsService;
+import ru.practicum.statsclient.HitReporter;
+import ru.practicum.statsclient.StatsClient;
+import ru.practicum.statsclient.StatsHttpTransport;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = {StatsClient.class, StatsHttpTransport.class, HitReporter.class,
+        StatsServiceApplication.class},
+        webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {
+                "stats-client.async.enabled=true",
+                "stats-client.async.linger-ms=50",
+                "stats.buffer.flush-interval-ms=100"
+        })
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatsClientAsyncITTest {
+    private final HitReporter hitReporter;
+    private final StatsService statsService;
+    private final LocalDateTime timestamp = LocalDateTime.parse("2023-07-05 10:00:00", Utils.DATE_FORMATTER);
+
+    @Test
+    public void reportAsync() throws InterruptedException {
+        hitReporter.report("APP", "/test/uri/1", "127.0.0.1", timestamp);
+        hitReporter.report("APP", "/test/uri/1", "127.0.0.2", timestamp);
+        hitReporter.report("APP", "/test/uri/2", "127.0.0.1", timestamp);
+
+        List<ViewStats> stats = List.of();
+        for (int attempt = 0; attempt < 50 && stats.size() < 2; attempt++) {
+            Thread.sleep(100);
+            stats = statsService.getAllStats(timestamp, timestamp, null, false);
+        }
+
+        assertEquals(2, stats.size());
+        assertEquals(new ViewStats("APP", "/test/uri/1", 2L), stats.get(0));
+        assertEquals(new ViewStats("APP", "/test/uri/2", 1L), stats.get(1));
+        assertEquals(0, hitReporter.getDroppedCount());
+    }
+}
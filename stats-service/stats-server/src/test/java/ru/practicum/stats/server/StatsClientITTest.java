@@ -13,15 +13,17 @@ import ru.practicum.stats.dto.Utils;
 import ru.practicum.stats.dto.ViewStats;
 import ru.practicum.stats.server.service.StatsService;
 import ru.practicum.statsclient.StatsClient;
+import ru.practicum.statsclient.StatsHttpTransport;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
-@SpringBootTest(classes = {StatsClient.class, StatsServiceApplication.class}, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@SpringBootTest(classes = {StatsClient.class, StatsHttpTransport.class, StatsServiceApplication.class}, webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class StatsClientITTest {
@@ -93,5 +95,34 @@ public class StatsClientITTest {
             throw new ClassCastException(exception.getMessage());
         }
     }
-}
 
+    @Test
+    public void getViewStats() {
+        statsService.save(endpointHit1);
+        statsService.save(endpointHit2);
+        statsService.save(endpointHit2);
+
+        List<ViewStats> stats = statsClient.getViewStats(
+                endpointHit1.getTimestamp(),
+                endpointHit2.getTimestamp(),
+                List.of(endpointHit1.getUri(), endpointHit2.getUri()),
+                false
+        );
+
+        assertEquals(List.of(new ViewStats(endpointHit2.getApp(), endpointHit2.getUri(), 2L),
+                new ViewStats(endpointHit1.getApp(), endpointHit1.getUri(), 1L)), stats);
+    }
+
+    @Test
+    public void getHitsByIds() {
+        statsService.save(EndpointHit.builder().app("APP").uri("/events/7").ip("127.0.0.1")
+                .timestamp(endpointHit1.getTimestamp()).build());
+        statsService.save(EndpointHit.builder().app("APP").uri("/events/7").ip("127.0.0.2")
+                .timestamp(endpointHit1.getTimestamp()).build());
+
+        Map<Long, Long> hits = statsClient.getHitsByIds(endpointHit1.getTimestamp(), endpointHit2.getTimestamp(),
+                "/events/", List.of(7L, 8L), true);
+
+        assertEquals(Map.of(7L, 2L, 8L, 0L), hits);
+    }
+}
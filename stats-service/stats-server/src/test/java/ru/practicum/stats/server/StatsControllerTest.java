@@ -11,21 +11,38 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.stats.dto.EndpointHit;
 import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.dto.ViewStatsRequest;
 import ru.practicum.stats.server.controller.StatsController;
+import ru.practicum.stats.server.model.StatsPage;
+import ru.practicum.stats.server.service.HitBuffer;
 import ru.practicum.stats.server.service.StatsService;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = StatsController.class)
@@ -37,6 +54,9 @@ public class StatsControllerTest {
     @MockBean
     private StatsService statsService;
 
+    @MockBean
+    private HitBuffer hitBuffer;
+
     private EndpointHit endpointHit;
     private String start;
     private String end;
@@ -192,6 +212,50 @@ public class StatsControllerTest {
         }
     }
 
+    @Nested
+    class AddHitBatch {
+        @BeforeEach
+        public void beforeEach() {
+            endpointHit = EndpointHit.builder()
+                    .app("APP")
+                    .uri("/test/uri/1")
+                    .ip("127.0.0.1")
+                    .timestamp(LocalDateTime.parse("2023-01-06 10:00:00", Utils.DATE_FORMATTER))
+                    .build();
+        }
+
+        @Test
+        public void saveBatch() throws Exception {
+            mvc.perform(post(Utils.HIT_BATCH)
+                            .content(mapper.writeValueAsString(List.of(endpointHit, endpointHit)))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated());
+
+            verify(hitBuffer, times(1)).addAll(ArgumentMatchers.eq(List.of(endpointHit, endpointHit)));
+        }
+
+        @Test
+        public void saveBatchErrorWhenHitIsNotValid() throws Exception {
+            EndpointHit notValidHit = EndpointHit.builder()
+                    .app("APP")
+                    .uri(" ")
+                    .ip("127.0.0.1")
+                    .timestamp(LocalDateTime.parse("2023-01-06 10:00:00", Utils.DATE_FORMATTER))
+                    .build();
+
+            mvc.perform(post(Utils.HIT_BATCH)
+                            .content(mapper.writeValueAsString(List.of(endpointHit, notValidHit)))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(hitBuffer, never()).addAll(any());
+        }
+    }
+
     @Nested
     class GetStats {
         @BeforeEach
@@ -212,7 +276,7 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getAllStats(any(), any(),
-                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(unique));
+                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(unique), ArgumentMatchers.eq(false));
         }
 
         @Test
@@ -225,7 +289,7 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getAllStats(any(), any(),
-                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(false));
+                    ArgumentMatchers.eq(uris), ArgumentMatchers.eq(false), ArgumentMatchers.eq(false));
         }
 
         @Test
@@ -238,7 +302,7 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getAllStats(any(), any(),
-                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(unique));
+                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(unique), ArgumentMatchers.eq(false));
         }
 
         @Test
@@ -251,7 +315,77 @@ public class StatsControllerTest {
                     .andExpect(status().isOk());
 
             verify(statsService, times(1)).getAllStats(any(), any(),
-                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(false));
+                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(false), ArgumentMatchers.eq(false));
+        }
+
+        @Test
+        public void getAllApproximate() throws Exception {
+            mvc.perform(get(Utils.STATS + "?start={start}&end={end}&unique={unique}&approximate=true",
+                            start, end, unique)
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            verify(statsService, times(1)).getAllStats(any(), any(),
+                    ArgumentMatchers.eq(null), ArgumentMatchers.eq(unique), ArgumentMatchers.eq(true));
+        }
+
+        @Test
+        public void getPage() throws Exception {
+            when(statsService.getStatsPage(any(), any(), any(), anyBoolean(), anyBoolean(), any(), anyInt()))
+                    .thenReturn(new StatsPage(List.of(new ViewStats("APP", "/test/uri/1", 3L)), "next"));
+
+            mvc.perform(get(Utils.STATS + "?start={start}&end={end}&limit=1&cursor=prev", start, end)
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(Utils.NEXT_CURSOR_HEADER, "next"))
+                    .andExpect(jsonPath("$[0].hits").value(3));
+
+            verify(statsService, times(1)).getStatsPage(any(), any(), ArgumentMatchers.eq(null),
+                    ArgumentMatchers.eq(false), ArgumentMatchers.eq(false), ArgumentMatchers.eq("prev"),
+                    ArgumentMatchers.eq(1));
+        }
+
+        @Test
+        public void getPageErrorWhenCursorWithoutLimitOrLimitNotPositive() throws Exception {
+            mvc.perform(get(Utils.STATS + "?start={start}&end={end}&cursor=prev", start, end)
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            mvc.perform(get(Utils.STATS + "?start={start}&end={end}&limit=0", start, end)
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getStatsPage(any(), any(), any(), anyBoolean(), anyBoolean(), any(),
+                    anyInt());
+        }
+
+        @Test
+        public void stream() throws Exception {
+            doAnswer(invocation -> {
+                Consumer<ViewStats> consumer = invocation.getArgument(5);
+                consumer.accept(new ViewStats("APP", "/test/uri/1", 3L));
+                consumer.accept(new ViewStats("APP", "/test/uri/2", 1L));
+                return null;
+            }).when(statsService).streamStats(any(), any(), any(), anyBoolean(), any(), any());
+
+            MvcResult result = mvc.perform(get(Utils.STATS_STREAM + "?start={start}&end={end}&limit=2", start, end))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = mvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(Utils.NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertEquals("{\"app\":\"APP\",\"uri\":\"/test/uri/1\",\"hits\":3}\n"
+                    + "{\"app\":\"APP\",\"uri\":\"/test/uri/2\",\"hits\":1}\n", body);
+            verify(statsService, times(1)).streamStats(any(), any(), ArgumentMatchers.eq(null),
+                    ArgumentMatchers.eq(false), ArgumentMatchers.eq(2), any());
         }
 
         @Test
@@ -266,7 +400,7 @@ public class StatsControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(statsService, never()).getAllStats(any(LocalDateTime.class), any(LocalDateTime.class),
-                    any(), any(Boolean.class));
+                    any(), any(Boolean.class), any(Boolean.class));
 
             end = "2023-07-01T00:00:00";
 
@@ -278,7 +412,65 @@ public class StatsControllerTest {
                     .andExpect(status().isBadRequest());
 
             verify(statsService, never()).getAllStats(any(LocalDateTime.class), any(LocalDateTime.class),
-                    any(), any(Boolean.class));
+                    any(), any(Boolean.class), any(Boolean.class));
+        }
+    }
+
+    @Nested
+    class GetHitsByIds {
+        private ViewStatsRequest request;
+
+        @BeforeEach
+        public void beforeEach() {
+            request = ViewStatsRequest.builder()
+                    .start(LocalDateTime.parse("2023-01-01 00:00:00", Utils.DATE_FORMATTER))
+                    .end(LocalDateTime.parse("2023-02-01 00:00:00", Utils.DATE_FORMATTER))
+                    .uriPrefix("/events/")
+                    .ids(List.of(1L, 2L))
+                    .unique(true)
+                    .build();
+        }
+
+        @Test
+        public void getHitsByIds() throws Exception {
+            when(statsService.getHitsByIds(ArgumentMatchers.eq(request))).thenReturn(Map.of(1L, 3L, 2L, 0L));
+
+            mvc.perform(post(Utils.STATS_IDS)
+                            .content(mapper.writeValueAsString(request))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.1").value(3))
+                    .andExpect(jsonPath("$.2").value(0));
+        }
+
+        @Test
+        public void getHitsByIdsErrorWhenIdsAreEmpty() throws Exception {
+            request.setIds(List.of());
+
+            mvc.perform(post(Utils.STATS_IDS)
+                            .content(mapper.writeValueAsString(request))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getHitsByIds(any());
+        }
+
+        @Test
+        public void getHitsByIdsErrorWhenStartAfterEnd() throws Exception {
+            request.setStart(request.getEnd().plusSeconds(1));
+
+            mvc.perform(post(Utils.STATS_IDS)
+                            .content(mapper.writeValueAsString(request))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+
+            verify(statsService, never()).getHitsByIds(any());
         }
     }
 }
@@ -0,0 +1,98 @@
+package ru.practicum.stats.server;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.statsclient.StatsHttpTransport;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class StatsHttpTransportTest {
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private StatsHttpTransport transport;
+    private String url;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/fast", exchange -> {
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort();
+
+        doAnswer(invocation -> {
+            Consumer<MeterRegistry> consumer = invocation.getArgument(0);
+            consumer.accept(meterRegistry);
+            return null;
+        }).when(meterRegistryProvider).ifAvailable(any());
+        transport = new StatsHttpTransport(meterRegistryProvider, 4, 2, 500, 500, 200, 30000, 30000, 2000);
+        transport.start();
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        transport.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldReuseConnectionsAndPublishPoolMetrics() {
+        RestTemplate rest = new RestTemplate(transport.requestFactory());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("[]", rest.getForObject(url + "/fast", String.class));
+        }
+
+        assertEquals(0, meterRegistry.get("stats.client.pool.leased").gauge().value());
+        assertEquals(1, meterRegistry.get("stats.client.pool.available").gauge().value());
+        assertEquals(4, meterRegistry.get("stats.client.pool.max").gauge().value());
+    }
+
+    @Test
+    public void shouldFailOnReadTimeoutAndReleaseConnection() {
+        RestTemplate rest = new RestTemplate(transport.requestFactory());
+
+        ResourceAccessException exception = assertThrows(ResourceAccessException.class,
+                () -> rest.getForObject(url + "/slow", String.class));
+
+        assertInstanceOf(SocketTimeoutException.class, exception.getCause());
+        assertEquals(0, meterRegistry.get("stats.client.pool.leased").gauge().value());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.stats.server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.service.StatsRollupService;
+import ru.practicum.stats.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stats-legacy",
+        "spring.sql.init.schema-locations=classpath:legacy-stats-schema.sql,classpath:schema.sql",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "stats.rollup.interval-ms=3600000"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class StatsLegacySchemaTest {
+    private final StatsService statsService;
+    private final StatsRollupService statsRollupService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<String> uris = List.of("/legacy");
+    private final LocalDateTime start = LocalDateTime.parse("2023-07-01 00:00:00", Utils.DATE_FORMATTER);
+    private final LocalDateTime end = LocalDateTime.parse("2023-07-02 00:00:00", Utils.DATE_FORMATTER);
+
+    @Test
+    public void startsOnTableCreatedBeforeRollups() {
+        List<ViewStats> expected = List.of(new ViewStats("APP", "/legacy", 1L));
+
+        assertEquals(expected, statsService.getAllStats(start, end, uris, false));
+
+        statsRollupService.rollup();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stats WHERE rollup_batch IS NULL",
+                Long.class));
+        assertEquals(expected, statsService.getAllStats(start, end, uris, false));
+    }
+}
@@ -5,6 +5,9 @@ import ru.practicum.stats.dto.ViewStats;
 import ru.practicum.stats.server.mapper.StatsMapper;
 import ru.practicum.stats.server.model.StatsEntity;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class StatsMapperImpl implements StatsMapper {
 
 
@@ -25,6 +28,20 @@ public class StatsMapperImpl implements StatsMapper {
         return statsEntity;
     }
 
+    @Override
+    public List<StatsEntity> toEntities(List<EndpointHit> endpointHits) {
+        if (endpointHits == null) {
+            return null;
+        }
+
+        List<StatsEntity> list = new ArrayList<>(endpointHits.size());
+        for (EndpointHit endpointHit : endpointHits) {
+            list.add(toEntity(endpointHit));
+        }
+
+        return list;
+    }
+
     @Override
     public EndpointHit toEndpointHit(StatsEntity entity) {
         if (entity == null) {
@@ -0,0 +1,103 @@
+package ru.practicum.stats.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.stats.server.model.RetentionMode;
+import ru.practicum.stats.server.service.StatsPartitionService;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StatsPartitionMaintenanceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private StatsPartitionService statsPartitionService;
+
+    @BeforeEach
+    public void beforeEach() {
+        statsPartitionService = new StatsPartitionService(jdbcTemplate, meterRegistry, 1, 6, RetentionMode.DETACH);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    }
+
+    @Test
+    public void startupFailsOnUnpartitionedPostgresTable() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> statsPartitionService.onStartup());
+
+        assertTrue(exception.getMessage().contains(StatsPartitionService.MIGRATION_SCRIPT));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    public void startupFailsWhenPartitionIsNotCreated() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+        doThrow(new DataAccessResourceFailureException("default partition contains rows"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE"));
+
+        assertThrows(IllegalStateException.class, () -> statsPartitionService.onStartup());
+    }
+
+    @Test
+    public void defaultPartitionIsCreatedWithMonthlyPartitions() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+
+        statsPartitionService.createPartitions(YearMonth.of(2023, 8));
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS stats_default PARTITION OF stats DEFAULT");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS stats_y2023m08 PARTITION OF stats "
+                + "FOR VALUES FROM ('2023-08-01') TO ('2023-09-01')");
+    }
+
+    @Test
+    public void scheduledFailureIsCounted() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+        doThrow(new DataAccessResourceFailureException("default partition contains rows"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE"));
+
+        statsPartitionService.maintain();
+
+        assertEquals(1, statsPartitionService.getFailureCount());
+    }
+
+    @Test
+    public void retentionCleansDefaultPartition() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("stats_y2023m01",
+                "stats_y2023m02"));
+
+        statsPartitionService.applyRetention(YearMonth.of(2023, 8));
+
+        verify(jdbcTemplate).update("DELETE FROM stats_default WHERE stats_time < ?",
+                LocalDateTime.of(2023, 2, 1, 0, 0));
+        verify(jdbcTemplate).execute("ALTER TABLE stats DETACH PARTITION stats_y2023m01");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE stats DETACH PARTITION stats_y2023m02");
+    }
+}
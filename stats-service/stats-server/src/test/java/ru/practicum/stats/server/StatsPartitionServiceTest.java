@@ -0,0 +1,50 @@
+package ru.practicum.stats.server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.stats.dto.EndpointHit;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.server.repository.StatsRepository;
+import ru.practicum.stats.server.service.StatsPartitionService;
+import ru.practicum.stats.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = "stats.retention.months=6")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatsPartitionServiceTest {
+    private final StatsPartitionService statsPartitionService;
+    private final StatsService statsService;
+    private final StatsRepository statsRepository;
+
+    @Test
+    public void retentionDeletesOldRowsOnH2() {
+        statsService.saveAll(List.of(hit("2023-01-31 23:59:59"), hit("2023-02-01 00:00:00"),
+                hit("2023-07-15 12:00:00")));
+
+        assertFalse(statsPartitionService.isPartitioned());
+
+        statsPartitionService.createPartitions(YearMonth.of(2023, 8));
+        statsPartitionService.applyRetention(YearMonth.of(2023, 8));
+
+        assertEquals(2, statsRepository.count());
+    }
+
+    private EndpointHit hit(String timestamp) {
+        return EndpointHit.builder()
+                .app("APP")
+                .uri("/retention")
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.parse(timestamp, Utils.DATE_FORMATTER))
+                .build();
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.stats.server;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.stats.dto.EndpointHit;
+import ru.practicum.stats.dto.Utils;
+import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.server.hll.HyperLogLog;
+import ru.practicum.stats.server.model.RollupGranularity;
+import ru.practicum.stats.server.model.StatsPage;
+import ru.practicum.stats.server.repository.StatsRepository;
+import ru.practicum.stats.server.repository.StatsRollupRepository;
+import ru.practicum.stats.server.service.StatsRollupService;
+import ru.practicum.stats.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "stats.rollup.interval-ms=3600000")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatsRollupServiceTest {
+    private final StatsService statsService;
+    private final StatsRollupService statsRollupService;
+    private final StatsRepository statsRepository;
+    private final StatsRollupRepository statsRollupRepository;
+
+    private final List<String> uris = List.of("/rollup/1", "/rollup/2");
+    private final LocalDateTime first = LocalDateTime.parse("2023-07-01 23:59:30", Utils.DATE_FORMATTER);
+
+    @Test
+    public void rollupKeepsCountsExact() {
+        statsService.saveAll(hits(first, 120, 7));
+
+        LocalDateTime start = LocalDateTime.parse("2023-07-01 23:59:45", Utils.DATE_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse("2023-07-04 02:30:10", Utils.DATE_FORMATTER);
+        List<ViewStats> expected = statsRepository.findAllByStatsAndUri(start, end, uris);
+
+        assertEquals(expected, statsService.getAllStats(start, end, uris, false));
+
+        statsRollupService.rollup();
+
+        assertEquals(expected, statsService.getAllStats(start, end, uris, false));
+        assertEquals(2, statsRollupRepository.sumHitsByUri(RollupGranularity.DAY,
+                LocalDateTime.parse("2023-07-02 00:00:00", Utils.DATE_FORMATTER),
+                LocalDateTime.parse("2023-07-03 00:00:00", Utils.DATE_FORMATTER), uris).size());
+
+        statsService.saveAll(hits(first.plusMinutes(1), 30, 13));
+        expected = statsRepository.findAllByStatsAndUri(start, end, uris);
+
+        assertEquals(expected, statsService.getAllStats(start, end, uris, false));
+
+        statsRollupService.rollup();
+
+        assertEquals(expected, statsService.getAllStats(start, end, uris, false));
+    }
+
+    @Test
+    public void rollupWithinSingleMinute() {
+        statsService.saveAll(hits(first, 10, 0));
+        statsRollupService.rollup();
+
+        List<ViewStats> stats = statsService.getAllStats(first, first.plusSeconds(20), uris, false);
+
+        assertEquals(List.of(new ViewStats("APP", "/rollup/1", 5L), new ViewStats("APP", "/rollup/2", 5L)),
+                stats);
+    }
+
+    @Test
+    public void rollupBucketsAreUpserted() {
+        LocalDateTime minute = RollupGranularity.MINUTE.floor(first);
+        LocalDateTime day = RollupGranularity.DAY.floor(first);
+
+        statsRollupRepository.addHits(RollupGranularity.MINUTE, minute, "APP", "/rollup/1", 2);
+        statsRollupRepository.addHits(RollupGranularity.MINUTE, minute, "APP", "/rollup/1", 3);
+
+        assertEquals(List.of(new ViewStats("APP", "/rollup/1", 5L)),
+                statsRollupRepository.sumHits(RollupGranularity.MINUTE, minute, minute.plusMinutes(1)));
+        assertEquals(1, statsRollupRepository.insertIfAbsent(RollupGranularity.DAY, day, "APP", "/rollup/1", 1,
+                new HyperLogLog().toBytes()));
+        assertEquals(0, statsRollupRepository.insertIfAbsent(RollupGranularity.DAY, day, "APP", "/rollup/1", 1,
+                new HyperLogLog().toBytes()));
+    }
+
+    @Test
+    public void approximateUniqueMatchesExactOnSmallSets() {
+        statsService.saveAll(hits(first, 120, 7));
+        statsRollupService.rollup();
+        statsService.saveAll(hits(first.plusMinutes(3), 40, 11));
+
+        LocalDateTime start = LocalDateTime.parse("2023-07-01 23:59:45", Utils.DATE_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse("2023-07-04 02:30:10", Utils.DATE_FORMATTER);
+
+        assertEquals(new HashSet<>(statsRepository.findAllByStatsUniqueAndUri(start, end, uris)),
+                new HashSet<>(statsService.getAllStats(start, end, uris, true, true)));
+    }
+
+    @Test
+    public void pagesFollowCursorOnRawAndRollupPaths() {
+        statsService.saveAll(hits(first, 120, 7));
+        statsRollupService.rollup();
+        statsService.saveAll(hits(first.plusMinutes(3), 40, 11));
+
+        LocalDateTime start = LocalDateTime.parse("2023-07-01 23:59:45", Utils.DATE_FORMATTER);
+        LocalDateTime end = LocalDateTime.parse("2023-07-04 02:30:10", Utils.DATE_FORMATTER);
+
+        assertEquals(sorted(statsService.getAllStats(start, end, null, false)), readPages(start, end, false));
+        assertEquals(sorted(statsService.getAllStats(start, end, null, true)), readPages(start, end, true));
+
+        List<ViewStats> streamed = new ArrayList<>();
+        statsService.streamStats(start, end, null, false, null, streamed::add);
+
+        assertEquals(sorted(statsService.getAllStats(start, end, null, false)), streamed);
+    }
+
+    private List<ViewStats> readPages(LocalDateTime start, LocalDateTime end, boolean unique) {
+        List<ViewStats> stats = new ArrayList<>();
+        String cursor = null;
+        do {
+            StatsPage page = statsService.getStatsPage(start, end, null, unique, false, cursor, 1);
+            assertTrue(page.getStats().size() <= 1);
+            stats.addAll(page.getStats());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return stats;
+    }
+
+    private List<ViewStats> sorted(List<ViewStats> stats) {
+        return stats.stream()
+                .sorted(Comparator.comparingLong(ViewStats::getHits).reversed()
+                        .thenComparing(ViewStats::getApp)
+                        .thenComparing(ViewStats::getUri))
+                .collect(Collectors.toList());
+    }
+
+    private List<EndpointHit> hits(LocalDateTime from, int count, int stepMinutes) {
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hits.add(EndpointHit.builder()
+                    .app("APP")
+                    .uri(uris.get(i % uris.size()))
+                    .ip("127.0.0." + i % 5)
+                    .timestamp(from.plusMinutes((long) i * stepMinutes).plusSeconds(i % 60))
+                    .build());
+        }
+        return hits;
+    }
+}
@@ -10,15 +10,26 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.stats.dto.EndpointHit;
 import ru.practicum.stats.dto.Utils;
 import ru.practicum.stats.dto.ViewStats;
+import ru.practicum.stats.dto.ViewStatsRequest;
 import ru.practicum.stats.server.model.StatsEntity;
+import ru.practicum.stats.server.model.StatsPage;
+import ru.practicum.stats.server.repository.StatsQueryRepository;
 import ru.practicum.stats.server.repository.StatsRepository;
+import ru.practicum.stats.server.service.StatsRollupService;
 import ru.practicum.stats.server.service.StatsService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,6 +40,10 @@ public class StatsServiceTest {
     private StatsRepository statsRepository;
     @Mock
     private StatsMapperImpl statsMapper;
+    @Mock
+    private StatsRollupService statsRollupService;
+    @Mock
+    private StatsQueryRepository statsQueryRepository;
 
     @InjectMocks
     private StatsService statsService;
@@ -36,6 +51,9 @@ public class StatsServiceTest {
     @Captor
     private ArgumentCaptor<StatsEntity> statsArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<StatsEntity>> statsListArgumentCaptor;
+
     private final EndpointHit endpointHit = EndpointHit.builder()
             .app("APP")
             .uri("/test/uri/1")
@@ -104,6 +122,74 @@ public class StatsServiceTest {
         assertEquals(viewStats2, stats.get(1));
     }
 
+    @Test
+    public void getAllNotUniqueFromRollups() {
+        when(statsRollupService.isEnabled()).thenReturn(true);
+        when(statsRollupService.getStats(start, end, uris)).thenReturn(List.of(viewStats2, viewStats1));
+
+        List<ViewStats> stats = statsService.getAllStats(start, end, uris, false);
+
+        verify(statsRollupService, times(1)).getStats(start, end, uris);
+        verify(statsRepository, never()).findAllByStatsAndUri(any(), any(), any());
+
+        assertEquals(List.of(viewStats2, viewStats1), stats);
+    }
+
+    @Test
+    public void getStatsPageFollowsCursor() {
+        when(statsQueryRepository.findPage(start, end, uris, true, null, 2))
+                .thenReturn(List.of(viewStats2, viewStats1));
+        when(statsQueryRepository.findPage(start, end, uris, true, viewStats2, 2))
+                .thenReturn(List.of(viewStats1));
+
+        StatsPage first = statsService.getStatsPage(start, end, uris, true, false, null, 1);
+
+        assertEquals(List.of(viewStats2), first.getStats());
+        assertNotNull(first.getNextCursor());
+
+        StatsPage second = statsService.getStatsPage(start, end, uris, true, false, first.getNextCursor(), 1);
+
+        assertEquals(List.of(viewStats1), second.getStats());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void getStatsPageFromRollupsIsLimitedInQuery() {
+        when(statsRollupService.isEnabled()).thenReturn(true);
+        when(statsRollupService.getStatsPage(start, end, uris, null, 2)).thenReturn(List.of(viewStats2, viewStats1));
+
+        StatsPage page = statsService.getStatsPage(start, end, uris, false, false, null, 1);
+
+        assertEquals(List.of(viewStats2), page.getStats());
+        verify(statsRollupService, never()).getStats(any(), any(), any());
+    }
+
+    @Test
+    public void getStatsPageFailsOnBrokenCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> statsService.getStatsPage(start, end, uris, true, false, "not a cursor", 1));
+
+        verify(statsQueryRepository, never()).findPage(any(), any(), any(), anyBoolean(), any(), anyInt());
+    }
+
+    @Test
+    public void getHitsByIds() {
+        List<String> eventUris = List.of("/events/1", "/events/2", "/events/3");
+        when(statsRepository.findAllByStatsUniqueAndUri(start, end, eventUris)).thenReturn(List.of(
+                new ViewStats("APP 1", "/events/2", 4L), new ViewStats("APP 2", "/events/2", 1L),
+                new ViewStats("APP 1", "/events/1", 2L)));
+
+        Map<Long, Long> hits = statsService.getHitsByIds(ViewStatsRequest.builder()
+                .start(start)
+                .end(end)
+                .uriPrefix("/events/")
+                .ids(List.of(1L, 2L, 3L))
+                .unique(true)
+                .build());
+
+        assertEquals(Map.of(1L, 2L, 2L, 5L, 3L, 0L), hits);
+    }
+
     @Test
     public void save() {
         when(statsMapper.toEntity(any())).thenCallRealMethod();
@@ -121,4 +207,21 @@ public class StatsServiceTest {
         assertEquals(endpointHit.getTimestamp(), savedEntity.getStatsTime());
     }
 
+    @Test
+    public void saveAll() {
+        when(statsMapper.toEntities(any())).thenCallRealMethod();
+        when(statsMapper.toEntity(any())).thenCallRealMethod();
+
+        statsService.saveAll(List.of(endpointHit, endpointHit));
+
+        verify(statsMapper, times(1)).toEntities(any());
+        verify(statsRepository, times(1)).saveAll(statsListArgumentCaptor.capture());
+
+        List<StatsEntity> savedEntities = statsListArgumentCaptor.getValue();
+
+        assertEquals(2, savedEntities.size());
+        assertEquals(endpointHit.getUri(), savedEntities.get(0).getUri());
+        assertEquals(endpointHit.getTimestamp(), savedEntities.get(1).getStatsTime());
+    }
+
 }
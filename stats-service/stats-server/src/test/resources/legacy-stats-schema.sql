@@ -0,0 +1,10 @@
+-- Таблица stats в том виде, в каком ее создавали версии сервиса до агрегатов и партиций.
+CREATE TABLE IF NOT EXISTS stats (
+ id BIGINT NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+ app varchar NOT NULL,
+ uri varchar NOT NULL,
+ ip varchar NOT NULL,
+ stats_time timestamp without time zone not null
+);
+
+INSERT INTO stats (id, app, uri, ip, stats_time) VALUES (1, 'APP', '/legacy', '127.0.0.1', '2023-07-01 12:00:00');